@@ -0,0 +1,328 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Online outlier detection over a live feed of transactions, per hour of day,
+ * store section, payment method and transaction status.
+ *
+ * Every key keeps {@link RunningStats}, a Welford mean and variance plus an
+ * exponentially weighted moving average, for each {@link Metric}:
+ * <ul>
+ * <li>Basket size is checked per transaction as it arrives.
+ * <li>Items sold, transaction count and the returned and pending rates are
+ * totalled per period, one day by default. A period's totals are checked when a
+ * transaction from a later period arrives, or on {@link #advanceTo} or
+ * {@link #flush()}. Items sold is also checked as it grows, so a spike is flagged
+ * during the period rather than after it.
+ * </ul>
+ * A value is an outlier when it lies more than threshold standard deviations
+ * from the key's mean, once the key has warmup samples. Values are checked
+ * before they are added, so an outlier does not widen its own baseline.
+ *
+ * Each transaction costs O(1), and memory is fixed: 35 keys with five metrics
+ * each. Transactions are expected in time order; one from an earlier period is
+ * counted in the current period. Periods without any transaction are skipped
+ * rather than recorded as zeros. Not thread-safe.
+ *
+ * Usage: {@code java AnomalyDetector [transactions.csv|.jsonl]} prints the
+ * alerts for a file in time order, or for generated transactions.
+ */
+public final class AnomalyDetector {
+
+        // Dimension a key belongs to
+        public enum Dimension {
+                HOUR(24), STORE_SECTION(StoreSection.values().length), PAYMENT_METHOD(PaymentMethod.values().length),
+                TRANSACTION_STATUS(TransactionStatus.values().length);
+
+                private final int keys;
+
+                Dimension(int keys) {
+                        this.keys = keys;
+                }
+        }
+
+        public enum Metric {
+                // Items in one transaction, checked on arrival
+                BASKET_SIZE,
+                // Per period
+                ITEMS_SOLD, TRANSACTIONS,
+                // Share of a period's transactions; not tracked for status keys, where it is 0 or 1
+                RETURNED_RATE, PENDING_RATE
+        }
+
+        /**
+         * An outlier: value against the key's mean and standard deviation before it
+         * was added, with the moving average for the recent level.
+         */
+        public record Alert(LocalDateTime time, Dimension dimension, String key, Metric metric, double value, double mean,
+                        double standardDeviation, double movingAverage) {
+
+                public double zScore() {
+                        return (value - mean) / standardDeviation;
+                }
+
+                @Override
+                public String toString() {
+                        return String.format("%s %s %s %s: %.2f (mean %.2f, sd %.2f, z %+.1f, ewma %.2f)", time, dimension,
+                                        key, metric, value, mean, standardDeviation, zScore(), movingAverage);
+                }
+        }
+
+        /**
+         * Count, mean and variance by Welford's method, and an exponentially
+         * weighted moving average and variance with smoothing factor alpha.
+         */
+        public static final class RunningStats {
+                private final double alpha;
+                private long count;
+                private double mean;
+                private double squaredDeviations;
+                private double movingAverage;
+                private double movingVariance;
+
+                public RunningStats(double alpha) {
+                        if (!(alpha > 0 && alpha <= 1))
+                                throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+                        this.alpha = alpha;
+                }
+
+                public void add(double value) {
+                        count++;
+                        double delta = value - mean;
+                        mean += delta / count;
+                        squaredDeviations += delta * (value - mean);
+
+                        if (count == 1) {
+                                movingAverage = value;
+                        } else {
+                                double deviation = value - movingAverage;
+                                movingAverage += alpha * deviation;
+                                movingVariance = (1 - alpha) * (movingVariance + alpha * deviation * deviation);
+                        }
+                }
+
+                public long count() {
+                        return count;
+                }
+
+                public double mean() {
+                        return mean;
+                }
+
+                // Sample variance, or 0 before the second value
+                public double variance() {
+                        return count > 1 ? squaredDeviations / (count - 1) : 0;
+                }
+
+                public double standardDeviation() {
+                        return Math.sqrt(variance());
+                }
+
+                public double movingAverage() {
+                        return movingAverage;
+                }
+
+                public double movingStandardDeviation() {
+                        return Math.sqrt(movingVariance);
+                }
+        }
+
+        private static final Dimension[] DIMENSIONS = Dimension.values();
+        private static final Metric[] METRICS = Metric.values();
+        // First key index of each dimension
+        private static final int[] OFFSETS = new int[DIMENSIONS.length];
+        private static final int KEYS;
+
+        static {
+                int keys = 0;
+                for (Dimension dimension : DIMENSIONS) {
+                        OFFSETS[dimension.ordinal()] = keys;
+                        keys += dimension.keys;
+                }
+                KEYS = keys;
+        }
+
+        private final long periodSeconds;
+        private final double threshold;
+        private final int warmup;
+        private final Consumer<Alert> alerts;
+        // Per key, per metric ordinal
+        private final RunningStats[][] stats = new RunningStats[KEYS][METRICS.length];
+
+        // Totals of the current period, per key
+        private final long[] transactions = new long[KEYS];
+        private final long[] items = new long[KEYS];
+        private final long[] returned = new long[KEYS];
+        private final long[] pending = new long[KEYS];
+        // Items sold already flagged during the current period
+        private final boolean[] itemsAlerted = new boolean[KEYS];
+        private final int[] keys = new int[DIMENSIONS.length];
+        // Current period, or Long.MIN_VALUE before the first transaction
+        private long period = Long.MIN_VALUE;
+
+        public AnomalyDetector(Duration period, double threshold, int warmup, double alpha, Consumer<Alert> alerts) {
+                if (period.getSeconds() <= 0 || period.getNano() != 0)
+                        throw new IllegalArgumentException("Period must be whole positive seconds: " + period);
+                if (warmup < 2)
+                        throw new IllegalArgumentException("Warmup must be at least 2 samples: " + warmup);
+                this.periodSeconds = period.getSeconds();
+                this.threshold = threshold;
+                this.warmup = warmup;
+                this.alerts = alerts;
+                for (RunningStats[] metrics : stats) {
+                        for (int m = 0; m < metrics.length; m++)
+                                metrics[m] = new RunningStats(alpha);
+                }
+        }
+
+        // Daily periods, alerts beyond 4 standard deviations after a week of samples
+        public static AnomalyDetector daily(Consumer<Alert> alerts) {
+                return new AnomalyDetector(Duration.ofDays(1), 4, 7, 0.2, alerts);
+        }
+
+        public static void main(String[] args) throws IOException {
+                AnomalyDetector detector = daily(System.out::println);
+                if (args.length > 0) {
+                        try (Stream<Transaction> transactions = TransactionReader.open(Path.of(args[0]))) {
+                                transactions.forEach(detector::accept);
+                        }
+                } else {
+                        List<Transaction> transactions = TransactionGenerator.list(100_000, 42);
+                        transactions.sort(StreamAPITutorial.BY_DATE_TIME);
+                        transactions.forEach(detector::accept);
+                }
+                detector.flush();
+        }
+
+        public void accept(Transaction tx) {
+                long time = tx.date().toEpochDay() * 86_400 + tx.time().toSecondOfDay();
+                long txPeriod = Math.floorDiv(time, periodSeconds);
+                if (period == Long.MIN_VALUE)
+                        period = txPeriod;
+                else if (txPeriod > period)
+                        closePeriod(txPeriod);
+
+                keys[Dimension.HOUR.ordinal()] = tx.time().getHour();
+                keys[Dimension.STORE_SECTION.ordinal()] = tx.storeSection().ordinal();
+                keys[Dimension.PAYMENT_METHOD.ordinal()] = tx.paymentMethod().ordinal();
+                keys[Dimension.TRANSACTION_STATUS.ordinal()] = tx.transactionStatus().ordinal();
+
+                int basketSize = tx.totalQuantity();
+                for (Dimension dimension : DIMENSIONS) {
+                        int key = OFFSETS[dimension.ordinal()] + keys[dimension.ordinal()];
+                        check(time, key, Metric.BASKET_SIZE, basketSize);
+                        stats[key][Metric.BASKET_SIZE.ordinal()].add(basketSize);
+
+                        transactions[key]++;
+                        items[key] += basketSize;
+                        if (tx.transactionStatus() == TransactionStatus.RETURNED)
+                                returned[key]++;
+                        else if (tx.transactionStatus() == TransactionStatus.PENDING)
+                                pending[key]++;
+
+                        // Items sold only grows within a period, so an upward spike can be flagged now
+                        if (!itemsAlerted[key] && zScore(key, Metric.ITEMS_SOLD, items[key]) > threshold) {
+                                itemsAlerted[key] = true;
+                                alert(time, key, Metric.ITEMS_SOLD, items[key]);
+                        }
+                }
+        }
+
+        // Closes the current period if time is past it
+        public void advanceTo(LocalDateTime time) {
+                long target = Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), periodSeconds);
+                if (period != Long.MIN_VALUE && target > period)
+                        closePeriod(target);
+        }
+
+        // Closes the current period, as at the end of a feed
+        public void flush() {
+                if (period != Long.MIN_VALUE)
+                        closePeriod(period + 1);
+        }
+
+        // Per-period stats of a key, for dashboards next to the alerts
+        public RunningStats stats(Dimension dimension, int key, Metric metric) {
+                if (key < 0 || key >= dimension.keys)
+                        throw new IndexOutOfBoundsException(dimension + " key " + key + " outside [0, " + dimension.keys + ")");
+                return stats[OFFSETS[dimension.ordinal()] + key][metric.ordinal()];
+        }
+
+        // Checks and records every key's totals for the current period, then starts next
+        private void closePeriod(long next) {
+                long end = (period + 1) * periodSeconds;
+                for (Dimension dimension : DIMENSIONS) {
+                        for (int key = OFFSETS[dimension.ordinal()]; key < OFFSETS[dimension.ordinal()] + dimension.keys; key++) {
+                                if (!itemsAlerted[key])
+                                        check(end, key, Metric.ITEMS_SOLD, items[key]);
+                                record(key, Metric.ITEMS_SOLD, items[key]);
+                                check(end, key, Metric.TRANSACTIONS, transactions[key]);
+                                record(key, Metric.TRANSACTIONS, transactions[key]);
+                                if (dimension != Dimension.TRANSACTION_STATUS && transactions[key] > 0) {
+                                        double returnedRate = (double) returned[key] / transactions[key];
+                                        double pendingRate = (double) pending[key] / transactions[key];
+                                        check(end, key, Metric.RETURNED_RATE, returnedRate);
+                                        record(key, Metric.RETURNED_RATE, returnedRate);
+                                        check(end, key, Metric.PENDING_RATE, pendingRate);
+                                        record(key, Metric.PENDING_RATE, pendingRate);
+                                }
+
+                                transactions[key] = 0;
+                                items[key] = 0;
+                                returned[key] = 0;
+                                pending[key] = 0;
+                                itemsAlerted[key] = false;
+                        }
+                }
+                period = next;
+        }
+
+        private void record(int key, Metric metric, double value) {
+                stats[key][metric.ordinal()].add(value);
+        }
+
+        private void check(long time, int key, Metric metric, double value) {
+                if (Math.abs(zScore(key, metric, value)) > threshold)
+                        alert(time, key, metric, value);
+        }
+
+        // Standard deviations from the key's mean, or 0 while the baseline is warming up or flat
+        private double zScore(int key, Metric metric, double value) {
+                RunningStats baseline = stats[key][metric.ordinal()];
+                if (baseline.count() < warmup || baseline.standardDeviation() == 0)
+                        return 0;
+                return (value - baseline.mean()) / baseline.standardDeviation();
+        }
+
+        // time is in epoch seconds; the timestamp is only built for an alert
+        private void alert(long time, int key, Metric metric, double value) {
+                RunningStats baseline = stats[key][metric.ordinal()];
+                Dimension dimension = dimension(key);
+                alerts.accept(new Alert(LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC), dimension,
+                                label(dimension, key - OFFSETS[dimension.ordinal()]), metric, value,
+                                baseline.mean(), baseline.standardDeviation(), baseline.movingAverage()));
+        }
+
+        private static Dimension dimension(int key) {
+                for (int d = DIMENSIONS.length - 1; d > 0; d--) {
+                        if (key >= OFFSETS[d])
+                                return DIMENSIONS[d];
+                }
+                return DIMENSIONS[0];
+        }
+
+        private static String label(Dimension dimension, int key) {
+                return switch (dimension) {
+                case HOUR -> StreamAPITutorialPartTwo.hourLabel(key);
+                case STORE_SECTION -> StoreSection.values()[key].label();
+                case PAYMENT_METHOD -> PaymentMethod.values()[key].label();
+                case TRANSACTION_STATUS -> TransactionStatus.values()[key].label();
+                };
+        }
+}
@@ -0,0 +1,28 @@
+/**
+ * A categorical transaction field backed by an enum. Free-text values are parsed
+ * once, case-insensitively, when a transaction is created; after that the field
+ * is compared by identity and counted by ordinal.
+ *
+ * Implementing enums declare their constants in report order: charts list
+ * categories in declaration order, and ties for the largest count go to the
+ * earliest. The order is the one the tutorial's string-keyed groupingBy printed,
+ * so the sample report is unchanged. A label the enum does not list is rejected.
+ */
+public interface Categorical {
+
+        // Display text, as it appears in the source data and in reports
+        String label();
+
+        // Implemented by Enum
+        int ordinal();
+
+        // The constant labelled text, ignoring case
+        static <C extends Categorical> C parse(C[] constants, String text) {
+                for (C constant : constants) {
+                        if (constant.label().equalsIgnoreCase(text))
+                                return constant;
+                }
+                throw new IllegalArgumentException(
+                                "Unknown " + constants.getClass().getComponentType().getSimpleName() + ": " + text);
+        }
+}
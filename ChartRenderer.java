@@ -0,0 +1,142 @@
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Renders bar charts in the layout of
+ * {@link StreamAPITutorialPartTwo#printBarChart(String, String[], int[])} into
+ * any {@link Appendable}: the console, a file, or a {@link StringBuilder}.
+ *
+ * Charts are built in one reused buffer and handed to the sink in large
+ * batches, once per {@link #flush()} or whenever the buffer passes
+ * {@link #BATCH_SIZE} characters, instead of one formatted write per line. Bars
+ * are copied from a reused block of glyphs, and labels are padded by hand.
+ */
+public final class ChartRenderer implements Flushable, Closeable {
+
+        static final int BATCH_SIZE = 1 << 16;
+        private static final int CHART_WIDTH = 80;
+        private static final String NEW_LINE = System.lineSeparator();
+
+        private final Appendable sink;
+        private final boolean closeSink;
+        private final StringBuilder buffer = new StringBuilder(BATCH_SIZE);
+        // Full block characters, grown to the longest bar so far
+        private char[] bar = new char[64];
+
+        public ChartRenderer(Appendable sink) {
+                this(sink, false);
+        }
+
+        private ChartRenderer(Appendable sink, boolean closeSink) {
+                this.sink = sink;
+                this.closeSink = closeSink;
+                Arrays.fill(bar, '█');
+        }
+
+        // Writes to System.out; closing the renderer leaves System.out open
+        public static ChartRenderer console() {
+                return new ChartRenderer(System.out);
+        }
+
+        // Writes UTF-8 to path, replacing it; closing the renderer closes the file
+        public static ChartRenderer file(Path path) throws IOException {
+                return new ChartRenderer(Files.newBufferedWriter(path), true);
+        }
+
+        // Keeps the charts in memory; read them back with rendered()
+        public static ChartRenderer memory() {
+                return new ChartRenderer(new StringBuilder());
+        }
+
+        public ChartRenderer charts(List<StreamAPITutorialPartTwo.ChartData> charts) throws IOException {
+                for (StreamAPITutorialPartTwo.ChartData chart : charts)
+                        chart(chart);
+                return this;
+        }
+
+        public ChartRenderer chart(StreamAPITutorialPartTwo.ChartData chart) throws IOException {
+                return chart(chart.title(), chart.labels(), chart.values());
+        }
+
+        public ChartRenderer chart(String title, String[] labels, long[] values) throws IOException {
+                if (labels.length != values.length) {
+                        throw new IllegalArgumentException("Labels and values must have the same length.");
+                }
+
+                int maxLabelLength = 0;
+                long maxValue = 0;
+                for (int i = 0; i < labels.length; i++) {
+                        maxLabelLength = Math.max(maxLabelLength, labels[i].length());
+                        maxValue = Math.max(maxValue, values[i]);
+                }
+                long scaleFactor = maxValue > 50 ? maxValue / 50 : 1;
+
+                // Centered title
+                if (title != null && !title.isEmpty()) {
+                        pad(Math.max(0, (CHART_WIDTH - title.length()) / 2));
+                        buffer.append(title).append(NEW_LINE).append(NEW_LINE);
+                }
+
+                for (int i = 0; i < labels.length; i++) {
+                        buffer.append(labels[i]);
+                        pad(maxLabelLength - labels[i].length());
+                        buffer.append(" | ");
+                        // At most about a hundred blocks, since scaleFactor is a fiftieth of the largest value
+                        appendBar((int) Math.max(0, values[i] / scaleFactor));
+                        buffer.append(" (").append(values[i]).append(')').append(NEW_LINE).append(NEW_LINE);
+                }
+
+                if (buffer.length() >= BATCH_SIZE)
+                        drain();
+                return this;
+        }
+
+        // Everything rendered so far, for a renderer whose sink is a StringBuilder such as memory()
+        public String rendered() {
+                if (!(sink instanceof StringBuilder text))
+                        throw new IllegalStateException("Sink is not a StringBuilder: " + sink.getClass().getName());
+                text.append(buffer);
+                buffer.setLength(0);
+                return text.toString();
+        }
+
+        // Hands everything rendered so far to the sink and flushes it
+        @Override
+        public void flush() throws IOException {
+                drain();
+                if (sink instanceof Flushable flushable)
+                        flushable.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+                flush();
+                if (closeSink && sink instanceof Closeable closeable)
+                        closeable.close();
+        }
+
+        private void drain() throws IOException {
+                if (buffer.length() > 0) {
+                        sink.append(buffer);
+                        buffer.setLength(0);
+                }
+        }
+
+        private void appendBar(int length) {
+                if (length > bar.length) {
+                        bar = new char[Math.max(length, bar.length * 2)];
+                        Arrays.fill(bar, '█');
+                }
+                buffer.append(bar, 0, length);
+        }
+
+        private void pad(int count) {
+                for (int i = 0; i < count; i++)
+                        buffer.append(' ');
+        }
+}
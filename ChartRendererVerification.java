@@ -0,0 +1,110 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that {@link ChartRenderer} draws charts exactly as the original
+ * {@code printf}-based {@code printBarChart} did, by rendering into
+ * {@link ChartRenderer#memory()} and comparing the text.
+ *
+ * The reference is that original loop, kept here verbatim apart from writing to
+ * a {@link StringBuilder} and taking {@code long} values. It is itself checked
+ * against one chart written out by hand. The charts are the ten tutorial charts
+ * over the sample month and over generated data, a few edge cases, and enough
+ * charts in one renderer to cross {@link ChartRenderer#BATCH_SIZE}.
+ *
+ * Usage: {@code java ChartRendererVerification}. Exits with status 1 on the
+ * first mismatch.
+ */
+public class ChartRendererVerification {
+
+        private static final String NEW_LINE = System.lineSeparator();
+
+        public static void main(String[] args) throws IOException {
+                String known = " ".repeat(38) + "Demo" + NEW_LINE + NEW_LINE
+                                + "a   | ██ (2)" + NEW_LINE + NEW_LINE
+                                + "bcd |  (0)" + NEW_LINE + NEW_LINE;
+                check("known render", List.of(new StreamAPITutorialPartTwo.ChartData("Demo",
+                                new String[] { "a", "bcd" }, new long[] { 2, 0 })), known);
+
+                check("sample month", StreamAPITutorialPartTwo.getMonthlyTransactions().stream()
+                                .collect(StreamAPITutorialPartTwo.charting()));
+                check("100000 generated", TransactionGenerator.stream(100_000, 7)
+                                .collect(StreamAPITutorialPartTwo.charting()));
+                check("edge cases", List.of(
+                                new StreamAPITutorialPartTwo.ChartData("", new String[0], new long[0]),
+                                new StreamAPITutorialPartTwo.ChartData(null, new String[] { "one" }, new long[] { 1 }),
+                                new StreamAPITutorialPartTwo.ChartData("A title longer than the eighty columns a chart is"
+                                                + " centered in, so it gets no padding at all",
+                                                new String[] { "x", "y" }, new long[] { 51, 50 }),
+                                new StreamAPITutorialPartTwo.ChartData("Beyond int range",
+                                                new String[] { "small", "large" }, new long[] { 7, 5_000_000_000L })));
+
+                // Past BATCH_SIZE characters the renderer drains to the sink mid-way
+                List<StreamAPITutorialPartTwo.ChartData> many = new ArrayList<>();
+                while (many.size() < 400)
+                        many.addAll(StreamAPITutorialPartTwo.getMonthlyTransactions().stream()
+                                        .collect(StreamAPITutorialPartTwo.charting()));
+                check("400 charts", many);
+
+                System.out.println("All charts match");
+        }
+
+        private static void check(String name, List<StreamAPITutorialPartTwo.ChartData> charts) throws IOException {
+                StringBuilder expected = new StringBuilder();
+                for (StreamAPITutorialPartTwo.ChartData chart : charts)
+                        printBarChart(expected, chart.title(), chart.labels(), chart.values());
+                check(name, charts, expected.toString());
+        }
+
+        private static void check(String name, List<StreamAPITutorialPartTwo.ChartData> charts, String expected)
+                        throws IOException {
+                String actual = ChartRenderer.memory().charts(charts).rendered();
+                if (actual.equals(expected)) {
+                        System.out.printf("%-18s %,d characters%n", name, actual.length());
+                        return;
+                }
+                int at = 0;
+                while (at < Math.min(actual.length(), expected.length()) && actual.charAt(at) == expected.charAt(at))
+                        at++;
+                System.err.printf("Mismatch for %s at character %d%n  expected: %s%n  rendered: %s%n", name, at,
+                                excerpt(expected, at), excerpt(actual, at));
+                System.exit(1);
+        }
+
+        private static String excerpt(String text, int at) {
+                return text.substring(Math.max(0, at - 20), Math.min(text.length(), at + 20)).replace(NEW_LINE, "\\n");
+        }
+
+        // The original StreamAPITutorialPartTwo.printBarChart, writing to out
+        private static void printBarChart(StringBuilder out, String title, String[] labels, long[] values) {
+                if (labels.length != values.length) {
+                        throw new IllegalArgumentException("Labels and values must have the same length.");
+                }
+
+                int maxLabelLength = 0;
+                long maxValue = 0;
+
+                for (int i = 0; i < labels.length; i++) {
+                        maxLabelLength = Math.max(maxLabelLength, labels[i].length());
+                        maxValue = Math.max(maxValue, values[i]);
+                }
+
+                long scaleFactor = maxValue > 50 ? maxValue / 50 : 1;
+                int chartWidth = 80;
+
+                // Print centered title
+                if (title != null && !title.isEmpty()) {
+                        int padding = Math.max(0, (chartWidth - title.length()) / 2);
+                        out.append(String.format("%" + (padding + title.length()) + "s%n", title));
+                        out.append(NEW_LINE);
+                }
+
+                for (int i = 0; i < labels.length; i++) {
+                        String label = String.format("%-" + maxLabelLength + "s", labels[i]);
+                        int barLength = (int) (values[i] / scaleFactor);
+                        String bar = "█".repeat(barLength); // full block character
+                        out.append(String.format("%s | %s (%d)%n%n", label, bar, values[i]));
+                }
+        }
+}
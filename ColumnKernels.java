@@ -0,0 +1,281 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter, count and sum kernels over whole primitive columns of a
+ * {@link TransactionTable}: byte codes for the categories, a byte hour and week
+ * per row, and an int basket size per row.
+ *
+ * Equality counts and existence checks on byte columns go through a
+ * {@link Kernel}. When the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}, that is
+ * {@code VectorColumnKernels} from the {@code vector} source directory, which
+ * compares a full SIMD register of rows per step with the Vector API; it is
+ * compiled on its own, with the same flag:
+ *
+ * <pre>
+ * javac -d classes *.java
+ * javac --add-modules jdk.incubator.vector -cp classes -d classes vector/VectorColumnKernels.java
+ * java --add-modules jdk.incubator.vector -cp classes PipelineBenchmark
+ * </pre>
+ *
+ * Otherwise, or when that class is missing, the fallback compares eight rows at
+ * a time. Each step loads a {@code long} from the byte array and counts the zero
+ * bytes of its XOR with the code repeated eight times (SWAR, SIMD within a
+ * register). Sums are plain counted loops over int arrays, which the JIT
+ * unrolls and vectorizes. Grouped counts and sums spread consecutive rows over
+ * independent partial arrays, so runs of the same key, such as rows sorted by
+ * time, do not serialise on one counter.
+ *
+ * The columns are derived once, in {@link #of(TransactionTable)}; the code
+ * columns are shared with the table.
+ */
+public final class ColumnKernels {
+
+        // Equality scans over a byte column
+        interface Kernel {
+                String name();
+
+                int countEquals(byte[] column, int code);
+
+                boolean containsEquals(byte[] column, int code);
+        }
+
+        static final Kernel SWAR = new Kernel() {
+                @Override
+                public String name() {
+                        return "swar";
+                }
+
+                @Override
+                public int countEquals(byte[] column, int code) {
+                        return ColumnKernels.countEquals(column, code);
+                }
+
+                @Override
+                public boolean containsEquals(byte[] column, int code) {
+                        return ColumnKernels.containsEquals(column, code);
+                }
+        };
+
+        // The Vector API kernel, or null when its module or class is not available
+        static final Kernel VECTOR = vectorKernel();
+
+        private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class,
+                        ByteOrder.LITTLE_ENDIAN);
+        private static final long ONES = 0x0101_0101_0101_0101L;
+        private static final long LOW_BITS = 0x7F7F_7F7F_7F7F_7F7FL;
+
+        private final TransactionTable table;
+        private final Kernel kernel;
+        private final byte[] hours;
+        private final byte[] weeks;
+        private final int[] basketSizes;
+
+        private ColumnKernels(TransactionTable table, Kernel kernel, byte[] hours, byte[] weeks, int[] basketSizes) {
+                this.table = table;
+                this.kernel = kernel;
+                this.hours = hours;
+                this.weeks = weeks;
+                this.basketSizes = basketSizes;
+        }
+
+        // Kernels on the Vector API when it is available, SWAR otherwise
+        public static ColumnKernels of(TransactionTable table) {
+                return of(table, VECTOR != null ? VECTOR : SWAR);
+        }
+
+        static ColumnKernels of(TransactionTable table, Kernel kernel) {
+                int size = table.size();
+                byte[] hours = new byte[size];
+                byte[] weeks = new byte[size];
+                int[] basketSizes = new int[size];
+                int lastDay = Integer.MIN_VALUE;
+                byte week = 0;
+                for (int row = 0; row < size; row++) {
+                        hours[row] = (byte) table.hour(row);
+                        // Rows are usually in date order, so the week is derived once per day
+                        if (table.epochDay(row) != lastDay) {
+                                lastDay = table.epochDay(row);
+                                week = (byte) StreamAPITutorialPartTwo.getWeekOfMonth(table.date(row));
+                        }
+                        weeks[row] = week;
+                        basketSizes[row] = table.itemCount(row);
+                }
+                return new ColumnKernels(table, kernel, hours, weeks, basketSizes);
+        }
+
+        // Name of the equality kernel in use: "vector" or "swar"
+        public String kernel() {
+                return kernel.name();
+        }
+
+        // Rows whose category has the given value: filter(...).count()
+        public int count(TransactionTable.Category category, Enum<?> value) {
+                return kernel.countEquals(table.column(category), code(category, value));
+        }
+
+        // Whether any row has the given value: anyMatch(...)
+        public boolean anyMatch(TransactionTable.Category category, Enum<?> value) {
+                return kernel.containsEquals(table.column(category), code(category, value));
+        }
+
+        // Whether every row has the given value: allMatch(...)
+        public boolean allMatch(TransactionTable.Category category, Enum<?> value) {
+                return count(category, value) == table.size();
+        }
+
+        // Rows per code, indexed by enum ordinal
+        public int[] countsBy(TransactionTable.Category category) {
+                return countBy(table.column(category), category.cardinality());
+        }
+
+        // Basket sizes summed per code, indexed by enum ordinal
+        public long[] itemsBy(TransactionTable.Category category) {
+                return sumBy(table.column(category), basketSizes, category.cardinality());
+        }
+
+        public int[] countsByHour() {
+                return countBy(hours, 24);
+        }
+
+        public long[] itemsByHour() {
+                return sumBy(hours, basketSizes, 24);
+        }
+
+        // Indexed by week of month, 1 to 4
+        public int[] countsByWeek() {
+                return countBy(weeks, 5);
+        }
+
+        public long[] itemsByWeek() {
+                return sumBy(weeks, basketSizes, 5);
+        }
+
+        // Total item quantity of every row
+        public long totalItems() {
+                return sum(basketSizes);
+        }
+
+        // The ten charts of StreamAPITutorialPartTwo.charting(); charts 4 and 9 come from the table's item loops
+        public List<StreamAPITutorialPartTwo.ChartData> charts() {
+                long[] transactionsByHour = toLongs(countsByHour());
+                long[] itemsByHour = itemsByHour();
+                long[] transactionsPerWeek = toLongs(countsByWeek());
+                // Merged in item id order, which is first-seen order, as ChartAccumulator does
+                long[] quantities = table.quantityPerItem(table.rows());
+                Map<String, Long> quantityPerItem = new HashMap<>();
+                for (int id = 0; id < quantities.length; id++)
+                        quantityPerItem.merge(table.itemName(id), quantities[id], Long::sum);
+
+                return StreamAPITutorialPartTwo.ChartAccumulator.toCharts(itemsByHour, transactionsByHour,
+                                toLongs(table.distinctItemsByHour(table.rows())), transactionsPerWeek, itemsByWeek(),
+                                toLongs(countsBy(TransactionTable.Category.PAYMENT_METHOD)),
+                                toLongs(countsBy(TransactionTable.Category.TRANSACTION_STATUS)), quantityPerItem,
+                                itemsBy(TransactionTable.Category.STORE_SECTION));
+        }
+
+        // Number of bytes equal to code, eight per step
+        static int countEquals(byte[] column, int code) {
+                long pattern = ONES * (code & 0xFF);
+                int count = 0;
+                int i = 0;
+                for (; i <= column.length - 8; i += 8)
+                        count += Long.bitCount(zeroBytes((long) LONGS.get(column, i) ^ pattern));
+                for (; i < column.length; i++) {
+                        if (column[i] == code)
+                                count++;
+                }
+                return count;
+        }
+
+        // Whether any byte equals code, eight per step, stopping at the first match
+        static boolean containsEquals(byte[] column, int code) {
+                long pattern = ONES * (code & 0xFF);
+                int i = 0;
+                for (; i <= column.length - 8; i += 8) {
+                        if (zeroBytes((long) LONGS.get(column, i) ^ pattern) != 0)
+                                return true;
+                }
+                for (; i < column.length; i++) {
+                        if (column[i] == code)
+                                return true;
+                }
+                return false;
+        }
+
+        // Occurrences of each key in [0, keyCount), over four partial arrays
+        static int[] countBy(byte[] keys, int keyCount) {
+                int[][] partials = new int[4][keyCount];
+                int i = 0;
+                for (; i <= keys.length - 4; i += 4) {
+                        partials[0][keys[i]]++;
+                        partials[1][keys[i + 1]]++;
+                        partials[2][keys[i + 2]]++;
+                        partials[3][keys[i + 3]]++;
+                }
+                for (; i < keys.length; i++)
+                        partials[0][keys[i]]++;
+                int[] counts = partials[0];
+                for (int key = 0; key < keyCount; key++)
+                        counts[key] += partials[1][key] + partials[2][key] + partials[3][key];
+                return counts;
+        }
+
+        // Values summed per key in [0, keyCount), over four partial arrays
+        static long[] sumBy(byte[] keys, int[] values, int keyCount) {
+                long[][] partials = new long[4][keyCount];
+                int i = 0;
+                for (; i <= keys.length - 4; i += 4) {
+                        partials[0][keys[i]] += values[i];
+                        partials[1][keys[i + 1]] += values[i + 1];
+                        partials[2][keys[i + 2]] += values[i + 2];
+                        partials[3][keys[i + 3]] += values[i + 3];
+                }
+                for (; i < keys.length; i++)
+                        partials[0][keys[i]] += values[i];
+                long[] sums = partials[0];
+                for (int key = 0; key < keyCount; key++)
+                        sums[key] += partials[1][key] + partials[2][key] + partials[3][key];
+                return sums;
+        }
+
+        static long sum(int[] values) {
+                long sum = 0;
+                for (int value : values)
+                        sum += value;
+                return sum;
+        }
+
+        // High bit of every byte of x that is zero, and nothing else
+        private static long zeroBytes(long x) {
+                long y = (x & LOW_BITS) + LOW_BITS;
+                return ~(y | x | LOW_BITS);
+        }
+
+        private static int code(TransactionTable.Category category, Enum<?> value) {
+                if (category.decode(value.ordinal()) != value)
+                        throw new IllegalArgumentException(value + " is not a " + category + " value");
+                return value.ordinal();
+        }
+
+        // Instantiated by name, so this class compiles and runs without the incubator module
+        private static Kernel vectorKernel() {
+                if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+                        return null;
+                try {
+                        return (Kernel) Class.forName("VectorColumnKernels").getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException | LinkageError e) {
+                        return null;
+                }
+        }
+
+        private static long[] toLongs(int[] values) {
+                return Arrays.stream(values).asLongStream().toArray();
+        }
+}
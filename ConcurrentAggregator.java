@@ -0,0 +1,171 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe live summary and chart state for transactions arriving from many
+ * producers at once, such as store terminals.
+ *
+ * Every counter is a {@link LongAdder}, which stripes updates across cells so
+ * concurrent producers rarely touch the same cache line. Per-item totals live in
+ * a {@link ConcurrentHashMap} of adders, distinct items in concurrent key sets,
+ * and the earliest transaction in a compare-and-set reference. Producers only
+ * take a lock the first time an item name appears, overall or within an hour.
+ *
+ * Reads never block or retry: {@link #summary()} and {@link #charts()} sum the
+ * adders as they stand. Once producers are quiescent the results equal
+ * {@link StreamAPITutorial#summarizing()} and
+ * {@link StreamAPITutorialPartTwo#charting()} over the same transactions; while
+ * appends are in flight a read may include part of a transaction. Among
+ * transactions with the same date and time, the first one recorded wins, and
+ * item names are charted in the order they were first recorded.
+ */
+public final class ConcurrentAggregator {
+
+        private static final int CREDIT_CARD = PaymentMethod.CREDIT_CARD.ordinal();
+        private static final int COMPLETED = TransactionStatus.COMPLETED.ordinal();
+
+        private final LongAdder[] itemsByHour = adders(24);
+        private final LongAdder[] transactionsByHour = adders(24);
+        private final List<Set<String>> distinctItemsByHour = new ArrayList<>(24);
+        // Week counters are indexed 1..4, categorical counters by enum ordinal
+        private final LongAdder[] transactionsPerWeek = adders(5);
+        private final LongAdder[] itemsPerWeek = adders(5);
+        private final LongAdder[] countByPaymentMethod = adders(PaymentMethod.values().length);
+        private final LongAdder[] statusCounts = adders(TransactionStatus.values().length);
+        private final LongAdder[] itemsBySection = adders(StoreSection.values().length);
+        private final ConcurrentHashMap<String, LongAdder> quantityPerItem = new ConcurrentHashMap<>();
+        // Item names in the order their adders were created, for the chart order of charting()
+        private final ConcurrentLinkedQueue<String> itemOrder = new ConcurrentLinkedQueue<>();
+        // Bit per StoreSection ordinal
+        private final AtomicInteger sectionsSeen = new AtomicInteger();
+        private final AtomicReference<Transaction> first = new AtomicReference<>();
+
+        public ConcurrentAggregator() {
+                for (int hour = 0; hour < 24; hour++)
+                        distinctItemsByHour.add(ConcurrentHashMap.newKeySet());
+        }
+
+        public static ConcurrentAggregator of(Iterable<Transaction> transactions) {
+                ConcurrentAggregator aggregator = new ConcurrentAggregator();
+                aggregator.appendAll(transactions);
+                return aggregator;
+        }
+
+        public void append(Transaction tx) {
+                int hour = tx.time().getHour();
+                int week = StreamAPITutorialPartTwo.getWeekOfMonth(tx.date());
+
+                int itemCount = 0;
+                Set<String> distinct = distinctItemsByHour.get(hour);
+                for (Item item : tx.items()) {
+                        itemCount += item.quantity();
+                        // Read first: adding a present key would still lock its bin
+                        if (!distinct.contains(item.name()))
+                                distinct.add(item.name());
+                        LongAdder quantity = quantityPerItem.get(item.name());
+                        if (quantity == null)
+                                quantity = addItem(item.name());
+                        quantity.add(item.quantity());
+                }
+
+                itemsByHour[hour].add(itemCount);
+                transactionsByHour[hour].increment();
+                transactionsPerWeek[week].increment();
+                itemsPerWeek[week].add(itemCount);
+                countByPaymentMethod[tx.paymentMethod().ordinal()].increment();
+                itemsBySection[tx.storeSection().ordinal()].add(itemCount);
+
+                int sectionBit = 1 << tx.storeSection().ordinal();
+                if ((sectionsSeen.get() & sectionBit) == 0)
+                        sectionsSeen.getAndAccumulate(sectionBit, (seen, bit) -> seen | bit);
+
+                Transaction current = first.get();
+                while ((current == null || StreamAPITutorial.BY_DATE_TIME.compare(tx, current) < 0)
+                                && !first.compareAndSet(current, tx))
+                        current = first.get();
+
+                // Last, so a transaction counts towards the totals only once the rest is recorded
+                statusCounts[tx.transactionStatus().ordinal()].increment();
+        }
+
+        // Queued only once the adder is in the map, so charts() finds every queued name
+        private LongAdder addItem(String name) {
+                LongAdder created = new LongAdder();
+                LongAdder existing = quantityPerItem.putIfAbsent(name, created);
+                if (existing != null)
+                        return existing;
+                itemOrder.add(name);
+                return created;
+        }
+
+        public void appendAll(Iterable<Transaction> transactions) {
+                for (Transaction tx : transactions)
+                        append(tx);
+        }
+
+        // Number of transactions recorded so far
+        public long version() {
+                long total = 0;
+                for (LongAdder count : statusCounts)
+                        total += count.sum();
+                return total;
+        }
+
+        public StreamAPITutorial.TransactionSummary summary() {
+                long[] statuses = sums(statusCounts);
+                long total = 0;
+                for (long count : statuses)
+                        total += count;
+                long[] payments = sums(countByPaymentMethod);
+                long itemsSold = 0;
+                for (LongAdder items : itemsBySection)
+                        itemsSold += items.sum();
+                Transaction earliest = first.get();
+
+                return new StreamAPITutorial.TransactionSummary(
+                                total,
+                                statuses[COMPLETED],
+                                earliest == null ? "N/A" : earliest.transactionId(),
+                                Integer.bitCount(sectionsSeen.get()),
+                                payments[CREDIT_CARD] > 0,
+                                statuses[COMPLETED] == total,
+                                StreamAPITutorial.mostUsedPaymentMethod(payments),
+                                itemsSold);
+        }
+
+        public List<StreamAPITutorialPartTwo.ChartData> charts() {
+                long[] distinctCounts = new long[24];
+                for (int hour = 0; hour < 24; hour++)
+                        distinctCounts[hour] = distinctItemsByHour.get(hour).size();
+                Map<String, Long> quantities = new HashMap<>();
+                // merge() as in ChartAccumulator.finish, which orders names sharing a bucket the same way
+                for (String name : itemOrder)
+                        quantities.merge(name, quantityPerItem.get(name).sum(), Long::sum);
+
+                return StreamAPITutorialPartTwo.ChartAccumulator.toCharts(sums(itemsByHour), sums(transactionsByHour),
+                                distinctCounts, sums(transactionsPerWeek), sums(itemsPerWeek), sums(countByPaymentMethod),
+                                sums(statusCounts), quantities, sums(itemsBySection));
+        }
+
+        private static LongAdder[] adders(int size) {
+                LongAdder[] adders = new LongAdder[size];
+                for (int i = 0; i < size; i++)
+                        adders[i] = new LongAdder();
+                return adders;
+        }
+
+        private static long[] sums(LongAdder[] adders) {
+                long[] sums = new long[adders.length];
+                for (int i = 0; i < adders.length; i++)
+                        sums[i] = adders[i].sum();
+                return sums;
+        }
+}
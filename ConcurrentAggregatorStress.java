@@ -0,0 +1,177 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stress test for {@link ConcurrentAggregator}: many producer threads append
+ * interleaved slices of one generated dataset at once, while a reader polls
+ * {@link ConcurrentAggregator#version()} and {@link ConcurrentAggregator#charts()}.
+ * Once the producers finish, the charts must equal a sequential
+ * {@link StreamAPITutorialPartTwo#charting()} over the same transactions, and
+ * the summary must equal {@link StreamAPITutorial#summarizing()}.
+ *
+ * Producers interleave, so the order in which item names are first recorded
+ * differs from the list order. "Total Quantity Sold per Item" is therefore
+ * compared as a set of (name, quantity) pairs. Equally, any of the transactions
+ * tied for the earliest date and time may be the first one. A single producer
+ * must match exactly.
+ *
+ * Usage: {@code java ConcurrentAggregatorStress [producers] [transactions] [rounds]},
+ * with defaults of 16, 200000 and 5. Exits with status 1 on the first mismatch.
+ */
+public class ConcurrentAggregatorStress {
+
+        private static final String ITEM_CHART = "Total Quantity Sold per Item";
+
+        public static void main(String[] args) throws InterruptedException {
+                int producers = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+                int size = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+                int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+                for (int round = 1; round <= rounds; round++) {
+                        List<Transaction> transactions = TransactionGenerator.list(size, round);
+                        List<StreamAPITutorialPartTwo.ChartData> expected = transactions.stream()
+                                        .collect(StreamAPITutorialPartTwo.charting());
+                        StreamAPITutorial.TransactionSummary expectedSummary = transactions.stream()
+                                        .collect(StreamAPITutorial.summarizing());
+
+                        ConcurrentAggregator single = ConcurrentAggregator.of(transactions);
+                        compare("round " + round + ", 1 producer", expected, single.charts(), false);
+                        compare("round " + round + ", 1 producer", expectedSummary, single.summary(), transactions);
+
+                        long start = System.nanoTime();
+                        ConcurrentAggregator aggregator = run(transactions, producers);
+                        long millis = (System.nanoTime() - start) / 1_000_000;
+                        String name = "round " + round + ", " + producers + " producers";
+                        compare(name, expected, aggregator.charts(), true);
+                        compare(name, expectedSummary, aggregator.summary(), transactions);
+                        System.out.printf("%-28s %,d transactions in %d ms%n", name, size, millis);
+                }
+                System.out.println("All charts and summaries match");
+        }
+
+        // Producer p appends rows p, p + producers, ... so every thread touches every hour and item
+        private static ConcurrentAggregator run(List<Transaction> transactions, int producers)
+                        throws InterruptedException {
+                ConcurrentAggregator aggregator = new ConcurrentAggregator();
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicBoolean done = new AtomicBoolean();
+                AtomicReference<Throwable> failure = new AtomicReference<>();
+
+                List<Thread> threads = new ArrayList<>(producers);
+                for (int p = 0; p < producers; p++) {
+                        int offset = p;
+                        threads.add(new Thread(() -> {
+                                try {
+                                        start.await();
+                                        for (int i = offset; i < transactions.size(); i += producers)
+                                                aggregator.append(transactions.get(i));
+                                } catch (Throwable e) {
+                                        failure.compareAndSet(null, e);
+                                }
+                        }, "producer-" + p));
+                }
+
+                // Reads while appends are in flight must not throw, and the version never goes back
+                Thread reader = new Thread(() -> {
+                        long last = 0;
+                        while (!done.get()) {
+                                long version = aggregator.version();
+                                if (version < last)
+                                        failure.compareAndSet(null,
+                                                        new IllegalStateException("Version went from " + last + " to " + version));
+                                last = version;
+                                try {
+                                        aggregator.charts();
+                                } catch (Throwable e) {
+                                        failure.compareAndSet(null, e);
+                                }
+                        }
+                }, "reader");
+
+                threads.forEach(Thread::start);
+                reader.start();
+                start.countDown();
+                for (Thread thread : threads)
+                        thread.join();
+                done.set(true);
+                reader.join();
+
+                if (failure.get() != null) {
+                        System.err.println("Failure during appends:");
+                        failure.get().printStackTrace();
+                        System.exit(1);
+                }
+                if (aggregator.version() != transactions.size())
+                        fail("Recorded " + aggregator.version() + " of " + transactions.size() + " transactions");
+                return aggregator;
+        }
+
+        private static void compare(String name, List<StreamAPITutorialPartTwo.ChartData> expected,
+                        List<StreamAPITutorialPartTwo.ChartData> actual, boolean unorderedItems) {
+                if (expected.size() != actual.size())
+                        fail(name + ": " + actual.size() + " charts, expected " + expected.size());
+                for (int i = 0; i < expected.size(); i++) {
+                        StreamAPITutorialPartTwo.ChartData want = expected.get(i);
+                        StreamAPITutorialPartTwo.ChartData got = actual.get(i);
+                        if (unorderedItems && want.title().equals(ITEM_CHART)) {
+                                want = sortedByLabel(want);
+                                got = sortedByLabel(got);
+                        }
+                        if (!want.title().equals(got.title()) || !Arrays.equals(want.labels(), got.labels())
+                                        || !Arrays.equals(want.values(), got.values()))
+                                fail(name + ": chart " + (i + 1) + " differs\n  sequential: " + describe(want)
+                                                + "\n  concurrent: " + describe(got));
+                }
+        }
+
+        private static void compare(String name, StreamAPITutorial.TransactionSummary expected,
+                        StreamAPITutorial.TransactionSummary actual, List<Transaction> transactions) {
+                // Accept any transaction tied with the expected first one
+                Transaction first = transactions.stream()
+                                .filter(tx -> tx.transactionId().equals(actual.firstTransactionId()))
+                                .findFirst()
+                                .orElse(null);
+                Transaction earliest = transactions.stream().min(StreamAPITutorial.BY_DATE_TIME).orElse(null);
+                boolean firstMatches = expected.firstTransactionId().equals(actual.firstTransactionId())
+                                || first != null && earliest != null
+                                                && StreamAPITutorial.BY_DATE_TIME.compare(first, earliest) == 0;
+                StreamAPITutorial.TransactionSummary normalized = new StreamAPITutorial.TransactionSummary(
+                                actual.totalTransactions(),
+                                actual.completedTransactions(),
+                                firstMatches ? expected.firstTransactionId() : actual.firstTransactionId(),
+                                actual.uniqueStoreSections(),
+                                actual.anyCreditCard(),
+                                actual.allCompleted(),
+                                actual.mostUsedPaymentMethod(),
+                                actual.totalItemsSold());
+                if (!expected.equals(normalized))
+                        fail(name + ": summary differs\n  sequential: " + expected + "\n  concurrent: " + actual);
+        }
+
+        private static StreamAPITutorialPartTwo.ChartData sortedByLabel(StreamAPITutorialPartTwo.ChartData chart) {
+                Integer[] order = new Integer[chart.labels().length];
+                Arrays.setAll(order, i -> i);
+                Arrays.sort(order, Comparator.comparing(i -> chart.labels()[i]));
+                String[] labels = new String[order.length];
+                long[] values = new long[order.length];
+                for (int i = 0; i < order.length; i++) {
+                        labels[i] = chart.labels()[order[i]];
+                        values[i] = chart.values()[order[i]];
+                }
+                return new StreamAPITutorialPartTwo.ChartData(chart.title(), labels, values);
+        }
+
+        private static String describe(StreamAPITutorialPartTwo.ChartData chart) {
+                return chart.title() + " " + Arrays.toString(chart.labels()) + " " + Arrays.toString(chart.values());
+        }
+
+        private static void fail(String message) {
+                System.err.println("Mismatch for " + message);
+                System.exit(1);
+        }
+}
@@ -0,0 +1,26 @@
+public enum CustomerType implements Categorical {
+        REGULAR("Regular"),
+        NEW("New");
+
+        private static final CustomerType[] VALUES = values();
+
+        private final String label;
+
+        CustomerType(String label) {
+                this.label = label;
+        }
+
+        public static CustomerType parse(String text) {
+                return Categorical.parse(VALUES, text);
+        }
+
+        @Override
+        public String label() {
+                return label;
+        }
+
+        @Override
+        public String toString() {
+                return label;
+        }
+}
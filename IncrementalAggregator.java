@@ -0,0 +1,47 @@
+import java.util.List;
+
+/**
+ * Running summary and chart state for an append-only transaction feed.
+ *
+ * Each appended transaction is folded into the same accumulators that back
+ * {@link StreamAPITutorial#summarizing()} and
+ * {@link StreamAPITutorialPartTwo#charting()}, in O(1) per transaction (plus
+ * O(1) per item). Reading the reports costs O(number of keys) and never rescans
+ * earlier transactions. Not thread-safe; feed it from a single thread.
+ */
+public final class IncrementalAggregator {
+
+        private final StreamAPITutorial.SummaryAccumulator summary = new StreamAPITutorial.SummaryAccumulator();
+        private final StreamAPITutorialPartTwo.ChartAccumulator charts = new StreamAPITutorialPartTwo.ChartAccumulator();
+        private long version;
+
+        public static IncrementalAggregator of(Iterable<Transaction> transactions) {
+                IncrementalAggregator aggregator = new IncrementalAggregator();
+                aggregator.appendAll(transactions);
+                return aggregator;
+        }
+
+        public void append(Transaction tx) {
+                summary.accept(tx);
+                charts.accept(tx);
+                version++;
+        }
+
+        public void appendAll(Iterable<Transaction> transactions) {
+                for (Transaction tx : transactions)
+                        append(tx);
+        }
+
+        // Number of transactions appended so far; changes on every append
+        public long version() {
+                return version;
+        }
+
+        public StreamAPITutorial.TransactionSummary summary() {
+                return summary.finish();
+        }
+
+        public List<StreamAPITutorialPartTwo.ChartData> charts() {
+                return charts.finish();
+        }
+}
@@ -0,0 +1,219 @@
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Group-by collectors for int keys that keep counts and sums in primitive
+ * arrays, in place of {@code groupingBy(..., counting())} and friends with their
+ * boxed {@code Map<Integer, Long>} results.
+ *
+ * With a key range, groups live in dense arrays indexed by key, which suits
+ * hours, weeks and enum ordinals. Without one, they live in an open-addressing
+ * hash table with linear probing. Either way the result is an {@link IntGroups}
+ * holding parallel arrays sorted by key, which turns into the
+ * {@code String[]}/{@code long[]} pair of a {@link StreamAPITutorialPartTwo.ChartData}
+ * without any boxed map.
+ */
+public final class IntGrouping {
+
+        private IntGrouping() {
+        }
+
+        /**
+         * Groups in ascending key order: the number of elements in each group and the
+         * sum of their values. Groups without elements are left out.
+         */
+        public record IntGroups(int[] keys, long[] counts, long[] sums) {
+
+                public int size() {
+                        return keys.length;
+                }
+
+                public StreamAPITutorialPartTwo.ChartData countChart(String title, IntFunction<String> label) {
+                        return chart(title, label, counts);
+                }
+
+                public StreamAPITutorialPartTwo.ChartData sumChart(String title, IntFunction<String> label) {
+                        return chart(title, label, sums);
+                }
+
+                // Mean value per group
+                public double[] averages() {
+                        double[] averages = new double[keys.length];
+                        for (int i = 0; i < keys.length; i++)
+                                averages[i] = (double) sums[i] / counts[i];
+                        return averages;
+                }
+
+                // Mean value per group, rounded half up as Math.round does, since bars are whole numbers
+                public StreamAPITutorialPartTwo.ChartData averageChart(String title, IntFunction<String> label) {
+                        double[] averages = averages();
+                        long[] rounded = new long[averages.length];
+                        for (int i = 0; i < averages.length; i++)
+                                rounded[i] = Math.round(averages[i]);
+                        return chart(title, label, rounded);
+                }
+
+                private StreamAPITutorialPartTwo.ChartData chart(String title, IntFunction<String> label, long[] values) {
+                        String[] labels = new String[keys.length];
+                        for (int i = 0; i < keys.length; i++)
+                                labels[i] = label.apply(keys[i]);
+                        return new StreamAPITutorialPartTwo.ChartData(title, labels, values);
+                }
+        }
+
+        // Count and value sum per key, for keys in [0, keyRange)
+        public static <T> Collector<T, ?, IntGroups> summingLong(int keyRange, ToIntFunction<? super T> key,
+                        ToLongFunction<? super T> value) {
+                return Collector.of(
+                                () -> new Dense(keyRange),
+                                (groups, element) -> groups.add(key.applyAsInt(element), value.applyAsLong(element)),
+                                Dense::merge,
+                                Dense::finish,
+                                Collector.Characteristics.UNORDERED);
+        }
+
+        // Count and value sum per key, for any int keys
+        public static <T> Collector<T, ?, IntGroups> summingLong(ToIntFunction<? super T> key,
+                        ToLongFunction<? super T> value) {
+                return Collector.of(
+                                Hashed::new,
+                                (groups, element) -> groups.add(key.applyAsInt(element), value.applyAsLong(element)),
+                                Hashed::merge,
+                                Hashed::finish,
+                                Collector.Characteristics.UNORDERED);
+        }
+
+        public static <T> Collector<T, ?, IntGroups> counting(int keyRange, ToIntFunction<? super T> key) {
+                return summingLong(keyRange, key, element -> 0);
+        }
+
+        public static <T> Collector<T, ?, IntGroups> counting(ToIntFunction<? super T> key) {
+                return summingLong(key, element -> 0);
+        }
+
+        // Counts and sums indexed by key
+        private static final class Dense {
+                private final long[] counts;
+                private final long[] sums;
+
+                Dense(int keyRange) {
+                        counts = new long[keyRange];
+                        sums = new long[keyRange];
+                }
+
+                void add(int key, long value) {
+                        if (key < 0 || key >= counts.length)
+                                throw new IllegalArgumentException("Key " + key + " outside [0, " + counts.length + ")");
+                        counts[key]++;
+                        sums[key] += value;
+                }
+
+                Dense merge(Dense other) {
+                        for (int key = 0; key < counts.length; key++) {
+                                counts[key] += other.counts[key];
+                                sums[key] += other.sums[key];
+                        }
+                        return this;
+                }
+
+                IntGroups finish() {
+                        int size = 0;
+                        for (long count : counts) {
+                                if (count > 0)
+                                        size++;
+                        }
+                        int[] keys = new int[size];
+                        long[] groupCounts = new long[size];
+                        long[] groupSums = new long[size];
+                        for (int key = 0, i = 0; key < counts.length; key++) {
+                                if (counts[key] > 0) {
+                                        keys[i] = key;
+                                        groupCounts[i] = counts[key];
+                                        groupSums[i++] = sums[key];
+                                }
+                        }
+                        return new IntGroups(keys, groupCounts, groupSums);
+                }
+        }
+
+        // Open addressing with linear probing; a slot is free while its count is zero
+        private static final class Hashed {
+                private int[] keys = new int[16];
+                private long[] counts = new long[16];
+                private long[] sums = new long[16];
+                private int size;
+
+                void add(int key, long value) {
+                        add(key, 1, value);
+                }
+
+                private void add(int key, long count, long value) {
+                        int mask = keys.length - 1;
+                        int slot = mix(key) & mask;
+                        while (counts[slot] != 0 && keys[slot] != key)
+                                slot = (slot + 1) & mask;
+                        if (counts[slot] == 0) {
+                                keys[slot] = key;
+                                if (++size > keys.length / 2) {
+                                        counts[slot] = count;
+                                        sums[slot] = value;
+                                        grow();
+                                        return;
+                                }
+                        }
+                        counts[slot] += count;
+                        sums[slot] += value;
+                }
+
+                Hashed merge(Hashed other) {
+                        for (int slot = 0; slot < other.keys.length; slot++) {
+                                if (other.counts[slot] != 0)
+                                        add(other.keys[slot], other.counts[slot], other.sums[slot]);
+                        }
+                        return this;
+                }
+
+                IntGroups finish() {
+                        // Sort (key, slot) pairs packed into longs to order the parallel arrays
+                        long[] order = new long[size];
+                        for (int slot = 0, i = 0; slot < keys.length; slot++) {
+                                if (counts[slot] != 0)
+                                        order[i++] = (long) keys[slot] << 32 | slot;
+                        }
+                        Arrays.sort(order);
+
+                        int[] groupKeys = new int[size];
+                        long[] groupCounts = new long[size];
+                        long[] groupSums = new long[size];
+                        for (int i = 0; i < size; i++) {
+                                int slot = (int) order[i];
+                                groupKeys[i] = keys[slot];
+                                groupCounts[i] = counts[slot];
+                                groupSums[i] = sums[slot];
+                        }
+                        return new IntGroups(groupKeys, groupCounts, groupSums);
+                }
+
+                private void grow() {
+                        int[] oldKeys = keys;
+                        long[] oldCounts = counts;
+                        long[] oldSums = sums;
+                        keys = new int[oldKeys.length * 2];
+                        counts = new long[oldKeys.length * 2];
+                        sums = new long[oldKeys.length * 2];
+                        size = 0;
+                        for (int slot = 0; slot < oldKeys.length; slot++) {
+                                if (oldCounts[slot] != 0)
+                                        add(oldKeys[slot], oldCounts[slot], oldSums[slot]);
+                        }
+                }
+
+                private static int mix(int key) {
+                        int hash = key * 0x9E3779B9;
+                        return hash ^ (hash >>> 16);
+                }
+        }
+}
@@ -0,0 +1,2 @@
+public record Item(String name, int quantity) {
+}
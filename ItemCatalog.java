@@ -0,0 +1,45 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns item names to dense int ids, 0, 1, 2, ... in order of first sight, so
+ * item-level aggregations can index plain arrays instead of hashing strings.
+ * Not thread-safe; give each thread its own catalog and translate ids by name
+ * when merging.
+ */
+public final class ItemCatalog {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private String[] names = new String[16];
+        private int size;
+
+        // Id of name, assigning the next free id the first time it is seen
+        public int id(String name) {
+                Integer id = ids.get(name);
+                if (id == null) {
+                        if (size == names.length)
+                                names = Arrays.copyOf(names, size * 2);
+                        names[size] = name;
+                        id = size++;
+                        ids.put(name, id);
+                }
+                return id;
+        }
+
+        public String name(int id) {
+                if (id < 0 || id >= size)
+                        throw new IndexOutOfBoundsException("Item id " + id + " outside [0, " + size + ")");
+                return names[id];
+        }
+
+        // Number of names interned; ids run from 0 to size() - 1
+        public int size() {
+                return size;
+        }
+
+        // Names indexed by id
+        public String[] names() {
+                return Arrays.copyOf(names, size);
+        }
+}
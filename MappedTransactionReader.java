@@ -0,0 +1,329 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Memory-mapped reader for the CSV format of {@link TransactionReader}.
+ *
+ * The file is mapped with {@link FileChannel#map} and exposed through a
+ * {@link Spliterator} that splits at line boundaries, so {@code .parallel()}
+ * hands each fork-join worker its own byte range straight from the page cache.
+ * Dates, times, quantities and categorical fields are parsed from the mapped
+ * bytes without building an intermediate line string. Lines containing quotes
+ * fall back to {@link TransactionReader#parseCsv(String)}.
+ */
+public final class MappedTransactionReader {
+
+        // Largest region mapped at once; MappedByteBuffer is int-indexed
+        private static final int CHUNK_SIZE = 1 << 30;
+
+        // Below this many bytes a range is not worth splitting further
+        private static final int MIN_SPLIT = 64 * 1024;
+
+        private static final PaymentMethod[] PAYMENT_METHODS = PaymentMethod.values();
+        private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+        private static final TransactionStatus[] TRANSACTION_STATUSES = TransactionStatus.values();
+        private static final CustomerType[] CUSTOMER_TYPES = CustomerType.values();
+        private static final StoreSection[] STORE_SECTIONS = StoreSection.values();
+
+        // UTF-8 labels, indexed like the constants above
+        private static final byte[][] PAYMENT_METHOD_LABELS = labels(PAYMENT_METHODS);
+        private static final byte[][] TRANSACTION_TYPE_LABELS = labels(TRANSACTION_TYPES);
+        private static final byte[][] TRANSACTION_STATUS_LABELS = labels(TRANSACTION_STATUSES);
+        private static final byte[][] CUSTOMER_TYPE_LABELS = labels(CUSTOMER_TYPES);
+        private static final byte[][] STORE_SECTION_LABELS = labels(STORE_SECTIONS);
+
+        private MappedTransactionReader() {
+        }
+
+        // Sequential stream; call parallel() on it for fork-join parsing
+        public static Stream<Transaction> csv(Path path) throws IOException {
+                return csv(path, CHUNK_SIZE);
+        }
+
+        static Stream<Transaction> csv(Path path, int chunkSize) throws IOException {
+                List<RangeSpliterator> chunks = new ArrayList<>();
+                // The mapping stays valid after the channel is closed
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                        long size = channel.size();
+                        long start = skipHeader(channel, size);
+                        while (start < size) {
+                                long end = start + chunkSize >= size ? size : lineEnd(channel, start + chunkSize, size);
+                                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                                chunks.add(new RangeSpliterator(buffer, 0, (int) (end - start)));
+                                start = end;
+                        }
+                }
+                Spliterator<Transaction> spliterator = chunks.size() == 1 ? chunks.get(0) : new ChunkSpliterator(chunks);
+                return StreamSupport.stream(spliterator, false);
+        }
+
+        // Offset just past the header line
+        private static long skipHeader(FileChannel channel, long size) throws IOException {
+                return size == 0 ? 0 : lineEnd(channel, 0, size);
+        }
+
+        // Offset just past the first '\n' at or after from, or size if there is none
+        private static long lineEnd(FileChannel channel, long from, long size) throws IOException {
+                ByteBuffer probe = ByteBuffer.allocate(4096);
+                long pos = from;
+                while (pos < size) {
+                        probe.clear();
+                        int read = channel.read(probe, pos);
+                        if (read <= 0)
+                                break;
+                        for (int i = 0; i < read; i++) {
+                                if (probe.get(i) == '\n')
+                                        return pos + i + 1;
+                        }
+                        pos += read;
+                }
+                return size;
+        }
+
+        private static byte[][] labels(Categorical[] constants) {
+                byte[][] labels = new byte[constants.length][];
+                for (int i = 0; i < constants.length; i++)
+                        labels[i] = constants[i].label().getBytes(StandardCharsets.UTF_8);
+                return labels;
+        }
+
+        // Lines of one mapped chunk, in [pos, end); splits in half at a line boundary
+        private static final class RangeSpliterator implements Spliterator<Transaction> {
+                private final ByteBuffer buffer;
+                private int pos;
+                private final int end;
+
+                RangeSpliterator(ByteBuffer buffer, int pos, int end) {
+                        this.buffer = buffer;
+                        this.pos = pos;
+                        this.end = end;
+                }
+
+                @Override
+                public boolean tryAdvance(Consumer<? super Transaction> action) {
+                        while (pos < end) {
+                                int lineStart = pos;
+                                int lineEnd = indexOf(buffer, (byte) '\n', pos, end);
+                                pos = lineEnd < end ? lineEnd + 1 : end;
+                                if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r')
+                                        lineEnd--;
+                                if (!isBlank(buffer, lineStart, lineEnd)) {
+                                        action.accept(parse(buffer, lineStart, lineEnd));
+                                        return true;
+                                }
+                        }
+                        return false;
+                }
+
+                @Override
+                public Spliterator<Transaction> trySplit() {
+                        if (end - pos < MIN_SPLIT)
+                                return null;
+                        int mid = indexOf(buffer, (byte) '\n', pos + (end - pos) / 2, end);
+                        if (mid >= end - 1)
+                                return null;
+                        RangeSpliterator prefix = new RangeSpliterator(buffer, pos, mid + 1);
+                        pos = mid + 1;
+                        return prefix;
+                }
+
+                @Override
+                public long estimateSize() {
+                        return (end - pos) / 64;
+                }
+
+                @Override
+                public int characteristics() {
+                        return ORDERED | NONNULL | IMMUTABLE;
+                }
+        }
+
+        // Several mapped chunks; splits by chunk first, then inside the last one
+        private static final class ChunkSpliterator implements Spliterator<Transaction> {
+                private final List<RangeSpliterator> chunks;
+                private int index;
+
+                ChunkSpliterator(List<RangeSpliterator> chunks) {
+                        this.chunks = chunks;
+                }
+
+                @Override
+                public boolean tryAdvance(Consumer<? super Transaction> action) {
+                        while (index < chunks.size()) {
+                                if (chunks.get(index).tryAdvance(action))
+                                        return true;
+                                index++;
+                        }
+                        return false;
+                }
+
+                @Override
+                public Spliterator<Transaction> trySplit() {
+                        int remaining = chunks.size() - index;
+                        if (remaining == 0)
+                                return null;
+                        if (remaining == 1)
+                                return chunks.get(index).trySplit();
+                        int mid = index + remaining / 2;
+                        Spliterator<Transaction> prefix = mid - index == 1 ? chunks.get(index)
+                                        : new ChunkSpliterator(chunks.subList(index, mid));
+                        index = mid;
+                        return prefix;
+                }
+
+                @Override
+                public long estimateSize() {
+                        long size = 0;
+                        for (int i = index; i < chunks.size(); i++)
+                                size += chunks.get(i).estimateSize();
+                        return size;
+                }
+
+                @Override
+                public int characteristics() {
+                        return ORDERED | NONNULL | IMMUTABLE;
+                }
+        }
+
+        // Parses one line in [start, end) straight from the mapped bytes
+        static Transaction parse(ByteBuffer buffer, int start, int end) {
+                int[] commas = new int[8];
+                int count = 0;
+                for (int i = start; i < end; i++) {
+                        byte b = buffer.get(i);
+                        if (b == '"')
+                                return TransactionReader.parseCsv(string(buffer, start, end));
+                        if (b == ',') {
+                                if (count == commas.length)
+                                        return TransactionReader.parseCsv(string(buffer, start, end));
+                                commas[count++] = i;
+                        }
+                }
+                if (count != commas.length)
+                        return TransactionReader.parseCsv(string(buffer, start, end)); // Reports the error
+
+                int paymentMethod = match(PAYMENT_METHOD_LABELS, buffer, commas[3] + 1, commas[4]);
+                int transactionType = match(TRANSACTION_TYPE_LABELS, buffer, commas[4] + 1, commas[5]);
+                int transactionStatus = match(TRANSACTION_STATUS_LABELS, buffer, commas[5] + 1, commas[6]);
+                int customerType = match(CUSTOMER_TYPE_LABELS, buffer, commas[6] + 1, commas[7]);
+                int storeSection = match(STORE_SECTION_LABELS, buffer, commas[7] + 1, end);
+                if ((paymentMethod | transactionType | transactionStatus | customerType | storeSection) < 0)
+                        return TransactionReader.parseCsv(string(buffer, start, end)); // Reports the unknown label
+
+                return new Transaction(
+                                string(buffer, start, commas[0]),
+                                parseDate(buffer, commas[0] + 1, commas[1]),
+                                parseTime(buffer, commas[1] + 1, commas[2]),
+                                parseItems(buffer, commas[2] + 1, commas[3]),
+                                PAYMENT_METHODS[paymentMethod],
+                                TRANSACTION_TYPES[transactionType],
+                                TRANSACTION_STATUSES[transactionStatus],
+                                CUSTOMER_TYPES[customerType],
+                                STORE_SECTIONS[storeSection]);
+        }
+
+        private static List<Item> parseItems(ByteBuffer buffer, int start, int end) {
+                List<Item> items = new ArrayList<>();
+                int pos = start;
+                while (pos < end) {
+                        int itemEnd = indexOf(buffer, (byte) ';', pos, end);
+                        int colon = itemEnd - 1;
+                        while (colon >= pos && buffer.get(colon) != ':')
+                                colon--;
+                        if (colon < pos)
+                                throw new IllegalArgumentException("Item without quantity: " + string(buffer, pos, itemEnd));
+                        items.add(new Item(string(buffer, pos, colon), parseInt(buffer, colon + 1, itemEnd)));
+                        pos = itemEnd + 1;
+                }
+                return List.copyOf(items);
+        }
+
+        // yyyy-MM-dd
+        private static LocalDate parseDate(ByteBuffer buffer, int start, int end) {
+                if (end - start != 10 || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-')
+                        throw new IllegalArgumentException("Invalid date: " + string(buffer, start, end));
+                return LocalDate.of(parseInt(buffer, start, start + 4), parseInt(buffer, start + 5, start + 7),
+                                parseInt(buffer, start + 8, end));
+        }
+
+        // HH:mm or HH:mm:ss
+        private static LocalTime parseTime(ByteBuffer buffer, int start, int end) {
+                int length = end - start;
+                if ((length != 5 && length != 8) || buffer.get(start + 2) != ':'
+                                || (length == 8 && buffer.get(start + 5) != ':'))
+                        throw new IllegalArgumentException("Invalid time: " + string(buffer, start, end));
+                int second = length == 8 ? parseInt(buffer, start + 6, end) : 0;
+                return LocalTime.of(parseInt(buffer, start, start + 2), parseInt(buffer, start + 3, start + 5), second);
+        }
+
+        private static int parseInt(ByteBuffer buffer, int start, int end) {
+                if (start >= end)
+                        throw new IllegalArgumentException("Missing number");
+                int value = 0;
+                for (int i = start; i < end; i++) {
+                        int digit = buffer.get(i) - '0';
+                        if (digit < 0 || digit > 9)
+                                throw new IllegalArgumentException("Invalid number: " + string(buffer, start, end));
+                        value = Math.addExact(Math.multiplyExact(value, 10), digit);
+                }
+                return value;
+        }
+
+        // Index of the label equal to the bytes, ignoring ASCII case, or -1
+        private static int match(byte[][] labels, ByteBuffer buffer, int start, int end) {
+                for (int i = 0; i < labels.length; i++) {
+                        byte[] label = labels[i];
+                        if (label.length != end - start)
+                                continue;
+                        int j = 0;
+                        while (j < label.length && toLower(label[j]) == toLower(buffer.get(start + j)))
+                                j++;
+                        if (j == label.length)
+                                return i;
+                }
+                return -1;
+        }
+
+        private static byte toLower(byte b) {
+                return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+        }
+
+        private static int indexOf(ByteBuffer buffer, byte target, int from, int end) {
+                for (int i = from; i < end; i++) {
+                        if (buffer.get(i) == target)
+                                return i;
+                }
+                return end;
+        }
+
+        // TransactionReader.isBlank on the bytes; a line with non-ASCII bytes is decoded first
+        private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+                for (int i = start; i < end; i++) {
+                        byte b = buffer.get(i);
+                        if (b < 0)
+                                return TransactionReader.isBlank(string(buffer, start, end));
+                        if (!Character.isWhitespace(b))
+                                return false;
+                }
+                return true;
+        }
+
+        private static String string(ByteBuffer buffer, int start, int end) {
+                byte[] bytes = new byte[end - start];
+                buffer.get(start, bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+        }
+}
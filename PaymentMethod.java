@@ -0,0 +1,28 @@
+public enum PaymentMethod implements Categorical {
+        CREDIT_CARD("Credit Card"),
+        MOBILE_PAYMENT("Mobile Payment"),
+        DEBIT_CARD("Debit Card"),
+        CASH("Cash");
+
+        private static final PaymentMethod[] VALUES = values();
+
+        private final String label;
+
+        PaymentMethod(String label) {
+                this.label = label;
+        }
+
+        public static PaymentMethod parse(String text) {
+                return Categorical.parse(VALUES, text);
+        }
+
+        @Override
+        public String label() {
+                return label;
+        }
+
+        @Override
+        public String toString() {
+                return label;
+        }
+}
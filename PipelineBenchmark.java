@@ -0,0 +1,260 @@
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Throughput and allocation benchmark for every pipeline in
+ * {@link StreamAPITutorial#summarizeWithStreams(List)} and
+ * {@link StreamAPITutorialPartTwo#chartsWithStreams(List)}, plus the fused
+ * collectors that replace them.
+ *
+ * Each pipeline runs over a generated dataset in sequential and parallel mode,
+ * the charts also run in an unboxed variant built on {@link IntGrouping}, and
+ * the summary operations and item-level charts run in a primitive variant over
+ * a {@link TransactionTable}. Column kernels from {@link ColumnKernels} run
+ * sequentially only, once with the SWAR kernel and, when the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}, once with the Vector API kernel.
+ * {@code charts.fused[kernel/...]} builds the same ten charts as
+ * {@code charts.fused}. Parallel runs execute in a dedicated
+ * {@link ForkJoinPool} per thread count to show scaling. Allocation is measured
+ * with the per-thread allocation counters of the HotSpot ThreadMXBean, summed
+ * across all threads.
+ *
+ * Usage: {@code java PipelineBenchmark [sizes] [threads] [filter]}, for example
+ * {@code java -Xmx24g PipelineBenchmark 1000,1000000,50000000 1,2,4,8 chart}.
+ * Sizes default to 1000 and 1000000 and thread counts to powers of two up to
+ * the number of processors. The filter keeps benchmarks whose name contains it.
+ */
+public class PipelineBenchmark {
+
+        private static final long WARMUP_NANOS = 500_000_000L;
+        private static final long MEASURE_NANOS = 1_000_000_000L;
+
+        private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory
+                        .getThreadMXBean();
+
+        // Results are folded in here so the JIT cannot drop a pipeline as dead code
+        private static volatile int sink;
+
+        // A pipeline over the boxed records, given a sequential or parallel stream
+        private record Boxed(String name, Function<Stream<Transaction>, Object> pipeline) {
+        }
+
+        // A pipeline over the columnar table, given a sequential or parallel row stream
+        private record Primitive(String name, BiFunction<TransactionTable, IntStream, Object> pipeline) {
+        }
+
+        // A kernel over whole primitive columns; sequential only
+        private record Kernel(String name, Function<ColumnKernels, Object> pipeline) {
+        }
+
+        public static void main(String[] args) throws Exception {
+                int[] sizes = args.length > 0 ? parseInts(args[0]) : new int[] { 1_000, 1_000_000 };
+                int[] threadCounts = args.length > 1 ? parseInts(args[1]) : defaultThreadCounts();
+                String filter = args.length > 2 ? args[2] : "";
+
+                System.out.printf("%-46s %11s %-10s %14s %12s %14s%n", "Benchmark", "Size", "Mode", "ops/s", "ms/op",
+                                "alloc B/op");
+
+                for (int size : sizes) {
+                        List<Transaction> transactions = TransactionGenerator.list(size, 42);
+                        TransactionTable table = TransactionTable.of(transactions);
+                        List<ColumnKernels> kernelVariants = ColumnKernels.VECTOR == null
+                                        ? List.of(ColumnKernels.of(table, ColumnKernels.SWAR))
+                                        : List.of(ColumnKernels.of(table, ColumnKernels.SWAR),
+                                                        ColumnKernels.of(table, ColumnKernels.VECTOR));
+
+                        for (Boxed benchmark : boxedBenchmarks()) {
+                                if (!benchmark.name().contains(filter))
+                                        continue;
+                                run(benchmark.name(), size, "seq",
+                                                () -> benchmark.pipeline().apply(transactions.stream()));
+                                for (int threads : threadCounts) {
+                                        ForkJoinPool pool = new ForkJoinPool(threads);
+                                        run(benchmark.name(), size, "par/" + threads, () -> pool
+                                                        .submit(() -> benchmark.pipeline().apply(transactions.parallelStream()))
+                                                        .join());
+                                        pool.shutdown();
+                                }
+                        }
+
+                        for (Primitive benchmark : primitiveBenchmarks()) {
+                                if (!benchmark.name().contains(filter))
+                                        continue;
+                                run(benchmark.name(), size, "seq", () -> benchmark.pipeline().apply(table, table.rows()));
+                                for (int threads : threadCounts) {
+                                        ForkJoinPool pool = new ForkJoinPool(threads);
+                                        run(benchmark.name(), size, "par/" + threads, () -> pool
+                                                        .submit(() -> benchmark.pipeline().apply(table, table.rows().parallel()))
+                                                        .join());
+                                        pool.shutdown();
+                                }
+                        }
+
+                        for (Kernel benchmark : kernelBenchmarks()) {
+                                for (ColumnKernels kernels : kernelVariants) {
+                                        String name = benchmark.name().replace("[kernel]", "[kernel/" + kernels.kernel() + "]");
+                                        if (name.contains(filter))
+                                                run(name, size, "seq", () -> benchmark.pipeline().apply(kernels));
+                                }
+                        }
+                }
+        }
+
+        private static List<Boxed> boxedBenchmarks() {
+                return List.of(
+                                // printSummary, one pipeline per insight
+                                new Boxed("summary.count", Stream::count),
+                                new Boxed("summary.completedCount", s -> s
+                                                .filter(tx -> tx.transactionStatus() == TransactionStatus.COMPLETED).count()),
+                                new Boxed("summary.firstBySort", s -> s.sorted(StreamAPITutorial.BY_DATE_TIME).findFirst()),
+                                new Boxed("summary.firstByMin", s -> s.min(StreamAPITutorial.BY_DATE_TIME)),
+                                new Boxed("summary.firstByTopK", s -> s.collect(StreamAPITutorial.earliest(1))),
+                                new Boxed("summary.uniqueSections", s -> s.map(Transaction::storeSection).distinct().count()),
+                                new Boxed("summary.anyCreditCard",
+                                                s -> s.anyMatch(tx -> tx.paymentMethod() == PaymentMethod.CREDIT_CARD)),
+                                new Boxed("summary.allCompleted",
+                                                s -> s.allMatch(tx -> tx.transactionStatus() == TransactionStatus.COMPLETED)),
+                                new Boxed("summary.mostUsedPaymentMethod", s -> s
+                                                .collect(Collectors.groupingBy(Transaction::paymentMethod,
+                                                                () -> new EnumMap<>(PaymentMethod.class), Collectors.counting()))
+                                                .entrySet().stream().max(Map.Entry.comparingByValue())),
+                                new Boxed("summary.totalItemsSold",
+                                                s -> s.flatMap(tx -> tx.items().stream()).mapToInt(Item::quantity).sum()),
+                                new Boxed("summary.fused", s -> s.collect(StreamAPITutorial.summarizing())),
+
+                                // PartTwo charts, one pass per chart
+                                new Boxed("chart01.itemsSoldByHour", StreamAPITutorialPartTwo::itemsSoldByHour),
+                                new Boxed("chart02.transactionsByHour", StreamAPITutorialPartTwo::transactionsByHour),
+                                new Boxed("chart03.averageItemsByHour", StreamAPITutorialPartTwo::averageItemsByHour),
+                                new Boxed("chart04.distinctItemsByHour", StreamAPITutorialPartTwo::distinctItemsByHour),
+                                new Boxed("chart05.transactionsPerWeek", StreamAPITutorialPartTwo::transactionsPerWeek),
+                                new Boxed("chart06.itemsSoldPerWeek", StreamAPITutorialPartTwo::itemsSoldPerWeek),
+                                new Boxed("chart07.transactionsByPaymentMethod",
+                                                StreamAPITutorialPartTwo::transactionsByPaymentMethod),
+                                new Boxed("chart08.statusDistribution", StreamAPITutorialPartTwo::statusDistribution),
+                                new Boxed("chart09.quantityPerItem", StreamAPITutorialPartTwo::quantityPerItem),
+                                new Boxed("chart10.itemsBySection", StreamAPITutorialPartTwo::itemsBySection),
+                                new Boxed("charts.fused", s -> s.collect(StreamAPITutorialPartTwo.charting())),
+
+                                // The same charts grouped into primitive arrays instead of boxed maps
+                                new Boxed("chart01.itemsSoldByHour[unboxed]", StreamAPITutorialPartTwo::itemsSoldByHourUnboxed),
+                                new Boxed("chart02.transactionsByHour[unboxed]",
+                                                StreamAPITutorialPartTwo::transactionsByHourUnboxed),
+                                new Boxed("chart03.averageItemsByHour[unboxed]",
+                                                StreamAPITutorialPartTwo::averageItemsByHourUnboxed),
+                                new Boxed("chart05.transactionsPerWeek[unboxed]",
+                                                StreamAPITutorialPartTwo::transactionsPerWeekUnboxed),
+                                new Boxed("chart06.itemsSoldPerWeek[unboxed]",
+                                                StreamAPITutorialPartTwo::itemsSoldPerWeekUnboxed),
+                                new Boxed("chart07.transactionsByPaymentMethod[unboxed]",
+                                                StreamAPITutorialPartTwo::transactionsByPaymentMethodUnboxed),
+                                new Boxed("chart08.statusDistribution[unboxed]",
+                                                StreamAPITutorialPartTwo::statusDistributionUnboxed),
+                                new Boxed("chart10.itemsBySection[unboxed]", StreamAPITutorialPartTwo::itemsBySectionUnboxed));
+        }
+
+        private static List<Primitive> primitiveBenchmarks() {
+                return List.of(
+                                new Primitive("summary.count[primitive]", (table, rows) -> rows.count()),
+                                new Primitive("summary.completedCount[primitive]",
+                                                (table, rows) -> rows.filter(completed(table)).count()),
+                                new Primitive("summary.firstByMin[primitive]", (table, rows) -> rows
+                                                .reduce((a, b) -> timestamp(table, b) < timestamp(table, a) ? b : a)),
+                                new Primitive("summary.uniqueSections[primitive]", (table, rows) -> rows
+                                                .map(row -> table.code(TransactionTable.Category.STORE_SECTION, row))
+                                                .distinct().count()),
+                                new Primitive("summary.anyCreditCard[primitive]", (table, rows) -> rows.anyMatch(
+                                                table.matching(TransactionTable.Category.PAYMENT_METHOD,
+                                                                PaymentMethod.CREDIT_CARD))),
+                                new Primitive("summary.allCompleted[primitive]",
+                                                (table, rows) -> rows.allMatch(completed(table))),
+                                new Primitive("summary.mostUsedPaymentMethod[primitive]", (table, rows) -> rows
+                                                .collect(() -> new long[PaymentMethod.values().length],
+                                                                (counts, row) -> counts[table.code(
+                                                                                TransactionTable.Category.PAYMENT_METHOD, row)]++,
+                                                                (left, right) -> Arrays.setAll(left, i -> left[i] + right[i]))),
+                                new Primitive("summary.totalItemsSold[primitive]",
+                                                (table, rows) -> rows.map(table::itemCount).sum()),
+                                new Primitive("chart04.distinctItemsByHour[primitive]", TransactionTable::distinctItemsByHour),
+                                new Primitive("chart09.quantityPerItem[primitive]", TransactionTable::quantityPerItem));
+        }
+
+        private static List<Kernel> kernelBenchmarks() {
+                return List.of(
+                                new Kernel("summary.completedCount[kernel]",
+                                                k -> k.count(TransactionTable.Category.TRANSACTION_STATUS, TransactionStatus.COMPLETED)),
+                                new Kernel("summary.anyCreditCard[kernel]",
+                                                k -> k.anyMatch(TransactionTable.Category.PAYMENT_METHOD, PaymentMethod.CREDIT_CARD)),
+                                new Kernel("summary.allCompleted[kernel]",
+                                                k -> k.allMatch(TransactionTable.Category.TRANSACTION_STATUS, TransactionStatus.COMPLETED)),
+                                new Kernel("summary.mostUsedPaymentMethod[kernel]",
+                                                k -> k.countsBy(TransactionTable.Category.PAYMENT_METHOD)),
+                                new Kernel("summary.totalItemsSold[kernel]", ColumnKernels::totalItems),
+                                new Kernel("chart01.itemsSoldByHour[kernel]", ColumnKernels::itemsByHour),
+                                new Kernel("chart02.transactionsByHour[kernel]", ColumnKernels::countsByHour),
+                                new Kernel("chart06.itemsSoldPerWeek[kernel]", ColumnKernels::itemsByWeek),
+                                new Kernel("chart08.statusDistribution[kernel]",
+                                                k -> k.countsBy(TransactionTable.Category.TRANSACTION_STATUS)),
+                                new Kernel("chart10.itemsBySection[kernel]",
+                                                k -> k.itemsBy(TransactionTable.Category.STORE_SECTION)),
+                                new Kernel("charts.fused[kernel]", ColumnKernels::charts));
+        }
+
+        private static IntPredicate completed(TransactionTable table) {
+                return table.matching(TransactionTable.Category.TRANSACTION_STATUS, TransactionStatus.COMPLETED);
+        }
+
+        private static long timestamp(TransactionTable table, int row) {
+                return (long) table.epochDay(row) * 86_400 + table.secondOfDay(row);
+        }
+
+        private static void run(String name, int size, String mode, Supplier<Object> operation) {
+                // Warm up, then measure whole invocations for at least MEASURE_NANOS
+                long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+                while (System.nanoTime() < warmupEnd)
+                        sink += operation.get().hashCode();
+
+                long operations = 0;
+                long allocatedBefore = allocatedBytes();
+                long start = System.nanoTime();
+                long elapsed;
+                do {
+                        sink += operation.get().hashCode();
+                        operations++;
+                        elapsed = System.nanoTime() - start;
+                } while (elapsed < MEASURE_NANOS);
+                long allocated = allocatedBytes() - allocatedBefore;
+
+                System.out.printf("%-46s %,11d %-10s %,14.1f %,12.3f %,14d%n", name, size, mode,
+                                operations * 1e9 / elapsed, elapsed / 1e6 / operations, allocated / operations);
+        }
+
+        private static long allocatedBytes() {
+                long total = 0;
+                for (long bytes : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+                        if (bytes > 0)
+                                total += bytes;
+                }
+                return total;
+        }
+
+        private static int[] defaultThreadCounts() {
+                int processors = Runtime.getRuntime().availableProcessors();
+                return IntStream.iterate(1, n -> n <= processors, n -> n * 2).toArray();
+        }
+
+        private static int[] parseInts(String csv) {
+                return Arrays.stream(csv.split(",")).mapToInt(Integer::parseInt).toArray();
+        }
+}
@@ -0,0 +1,164 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Caches aggregation results such as summaries, charts and pages for as long as
+ * the dataset they were computed from is unchanged.
+ *
+ * Every entry is tagged with the dataset version it was computed at, for example
+ * {@link IncrementalAggregator#version()}, which only grows. A lookup at any
+ * other version is a miss, and its result replaces the entry unless the entry is
+ * newer, so appends invalidate earlier results without any explicit
+ * notification. The cache is bounded by entry count and by estimated size in
+ * bytes, and evicts the least recently used entries first.
+ *
+ * <pre>
+ * TransactionSummary summary = cache.get(QueryCache.Key.of("summary"), aggregator.version(),
+ *                 aggregator::summary);
+ * </pre>
+ *
+ * Thread-safe. Results are computed outside the lock, so two threads missing on
+ * the same key at once may both compute it. A loader that started at an older
+ * version and finishes last does not overwrite the newer entry.
+ */
+public final class QueryCache {
+
+        /**
+         * Identifies a query: the operation (which chart, summary or page) and its
+         * arguments (filters, page number), compared with equals.
+         */
+        public record Key(String operation, List<Object> arguments) {
+
+                public static Key of(String operation, Object... arguments) {
+                        return new Key(operation, Collections.unmodifiableList(Arrays.asList(arguments.clone())));
+                }
+        }
+
+        public record Stats(long hits, long misses, long evictions, int entries, long bytes) {
+        }
+
+        private record Entry(Object value, long version, long bytes) {
+        }
+
+        private final int maxEntries;
+        private final long maxBytes;
+        private final ToLongFunction<Object> weigher;
+        // Access order: the first entry is the least recently used
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+        private long hits;
+        private long misses;
+        private long evictions;
+
+        public QueryCache(int maxEntries, long maxBytes) {
+                this(maxEntries, maxBytes, QueryCache::estimateBytes);
+        }
+
+        public QueryCache(int maxEntries, long maxBytes, ToLongFunction<Object> weigher) {
+                if (maxEntries < 1 || maxBytes < 1)
+                        throw new IllegalArgumentException("Cache bounds must be positive: " + maxEntries + " entries, "
+                                        + maxBytes + " bytes");
+                this.maxEntries = maxEntries;
+                this.maxBytes = maxBytes;
+                this.weigher = weigher;
+        }
+
+        // The cached result of key at version, or the loader's result, cached
+        @SuppressWarnings("unchecked")
+        public <V> V get(Key key, long version, Supplier<? extends V> loader) {
+                synchronized (this) {
+                        Entry entry = entries.get(key);
+                        if (entry != null && entry.version() == version) {
+                                hits++;
+                                return (V) entry.value();
+                        }
+                        misses++;
+                }
+
+                V value = loader.get();
+                long size = weigher.applyAsLong(value);
+                synchronized (this) {
+                        // A slower loader for an older version must not replace a newer result
+                        Entry current = entries.get(key);
+                        if (current != null && current.version() > version)
+                                return value;
+                        Entry previous = entries.remove(key);
+                        if (previous != null)
+                                bytes -= previous.bytes();
+                        // A result larger than the whole cache is returned but not kept
+                        if (size <= maxBytes) {
+                                entries.put(key, new Entry(value, version, size));
+                                bytes += size;
+                                evict();
+                        }
+                }
+                return value;
+        }
+
+        public synchronized void clear() {
+                entries.clear();
+                bytes = 0;
+        }
+
+        public synchronized Stats stats() {
+                return new Stats(hits, misses, evictions, entries.size(), bytes);
+        }
+
+        private void evict() {
+                Iterator<Map.Entry<Key, Entry>> lru = entries.entrySet().iterator();
+                while (entries.size() > maxEntries || bytes > maxBytes) {
+                        bytes -= lru.next().getValue().bytes();
+                        lru.remove();
+                        evictions++;
+                }
+        }
+
+        /**
+         * Rough retained size of the result types this repo produces: summaries,
+         * chart data, transactions, pages of transactions and collections or arrays
+         * of them. Shared objects such as enum constants are not counted.
+         */
+        public static long estimateBytes(Object value) {
+                if (value == null)
+                        return 0;
+                if (value instanceof String string)
+                        return 40 + string.length();
+                if (value instanceof StreamAPITutorial.TransactionSummary summary)
+                        return 64 + estimateBytes(summary.firstTransactionId())
+                                        + estimateBytes(summary.mostUsedPaymentMethod());
+                if (value instanceof StreamAPITutorialPartTwo.ChartData chart)
+                        return 32 + estimateBytes(chart.title()) + estimateBytes(chart.labels())
+                                        + estimateBytes(chart.values());
+                if (value instanceof Transaction tx)
+                        return 96 + estimateBytes(tx.transactionId()) + 32 + 24L * tx.items().size();
+                if (value instanceof TransactionPageIndex.Page page)
+                        return 32 + estimateBytes(page.transactions()) + estimateBytes(page.previous())
+                                        + estimateBytes(page.next());
+                if (value instanceof TransactionPageIndex.Cursor cursor)
+                        return 32 + estimateBytes(cursor.transactionId());
+                if (value instanceof Collection<?> collection) {
+                        long total = 32 + 8L * collection.size();
+                        for (Object element : collection)
+                                total += estimateBytes(element);
+                        return total;
+                }
+                if (value instanceof Object[] array) {
+                        long total = 16 + 8L * array.length;
+                        for (Object element : array)
+                                total += estimateBytes(element);
+                        return total;
+                }
+                if (value instanceof int[] array)
+                        return 16 + 4L * array.length;
+                if (value instanceof long[] array)
+                        return 16 + 8L * array.length;
+                return 32;
+        }
+}
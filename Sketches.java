@@ -0,0 +1,353 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Approximate collectors with fixed memory and mergeable state, for distinct
+ * counts and frequencies over more keys than a hash set or map can hold.
+ *
+ * <ul>
+ * <li>{@link #distinctCount} counts distinct keys with a {@link HyperLogLog},
+ * in place of {@code distinct().count()} or {@code toSet().size()}.
+ * <li>{@link #countMin} estimates the count of any key with a
+ * {@link CountMinSketch}, in place of {@code groupingBy(..., counting())}.
+ * <li>{@link #heavyHitters} finds the most frequent keys with
+ * {@link SpaceSaving}, in place of counting everything and sorting.
+ * </ul>
+ *
+ * Each sketch merges with another of the same configuration, so the collectors
+ * give the same guarantees on parallel streams.
+ */
+public final class Sketches {
+
+        private Sketches() {
+        }
+
+        // Approximate number of distinct keys, within relativeError for about 65% of runs; see HyperLogLog for the range
+        public static <T> Collector<T, ?, Long> distinctCount(double relativeError, Function<? super T, ?> key) {
+                return Collector.of(
+                                () -> new HyperLogLog(relativeError),
+                                (sketch, element) -> sketch.add(key.apply(element)),
+                                HyperLogLog::merge,
+                                HyperLogLog::estimate,
+                                Collector.Characteristics.UNORDERED);
+        }
+
+        public static <T> Collector<T, ?, Long> distinctCount(double relativeError) {
+                return distinctCount(relativeError, Function.identity());
+        }
+
+        // Per-key weight sums, overestimated by at most epsilon x total weight with probability 1 - delta
+        public static <T> Collector<T, ?, CountMinSketch> countMin(double epsilon, double delta,
+                        Function<? super T, ?> key, ToLongFunction<? super T> weight) {
+                return Collector.of(
+                                () -> new CountMinSketch(epsilon, delta),
+                                (sketch, element) -> sketch.add(key.apply(element), weight.applyAsLong(element)),
+                                CountMinSketch::merge,
+                                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+        }
+
+        // Up to capacity keys with the highest weight sums, heaviest first; size capacity a few times the keys wanted
+        public static <T, K> Collector<T, ?, List<HeavyHitter<K>>> heavyHitters(int capacity,
+                        Function<? super T, ? extends K> key, ToLongFunction<? super T> weight) {
+                return Collector.of(
+                                () -> new SpaceSaving<K>(capacity),
+                                (sketch, element) -> sketch.add(key.apply(element), weight.applyAsLong(element)),
+                                SpaceSaving::merge,
+                                SpaceSaving::top,
+                                Collector.Characteristics.UNORDERED);
+        }
+
+        public static <T> Collector<T, ?, List<HeavyHitter<T>>> heavyHitters(int capacity) {
+                return heavyHitters(capacity, Function.identity(), element -> 1);
+        }
+
+        /**
+         * A key reported by {@link SpaceSaving}. Its true weight lies between
+         * {@code count - error} and {@code count}.
+         */
+        public record HeavyHitter<K>(K key, long count, long error) {
+        }
+
+        /**
+         * HyperLogLog distinct counter: 2^p one-byte registers, with a standard
+         * error of about 1.04 / sqrt(2^p). 1% error takes 16 KiB. p ranges from 4
+         * to 18, so errors below {@link #MIN_RELATIVE_ERROR}, about 0.2% in 256 KiB,
+         * are rejected. {@link #relativeError()} is the error actually achieved.
+         */
+        public static final class HyperLogLog {
+                private static final int MIN_PRECISION = 4;
+                private static final int MAX_PRECISION = 18;
+                public static final double MIN_RELATIVE_ERROR = 1.04 / Math.sqrt(1 << MAX_PRECISION);
+
+                private final int precision;
+                private final byte[] registers;
+
+                public HyperLogLog(double relativeError) {
+                        if (!(relativeError > 0 && relativeError < 1))
+                                throw new IllegalArgumentException("Relative error must be in (0, 1): " + relativeError);
+                        if (relativeError < MIN_RELATIVE_ERROR)
+                                throw new IllegalArgumentException("Relative error must be at least " + MIN_RELATIVE_ERROR
+                                                + " (2^" + MAX_PRECISION + " registers): " + relativeError);
+                        double registerCount = Math.pow(1.04 / relativeError, 2);
+                        int precision = 64 - Long.numberOfLeadingZeros((long) Math.ceil(registerCount) - 1);
+                        this.precision = Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision));
+                        this.registers = new byte[1 << this.precision];
+                }
+
+                // Standard error of the estimate at this precision, at most the error asked for
+                public double relativeError() {
+                        return 1.04 / Math.sqrt(registers.length);
+                }
+
+                public void add(Object key) {
+                        long hash = hash(key);
+                        int index = (int) (hash >>> (64 - precision));
+                        // Leading zeros of the remaining bits, plus one; the guard bit caps the rank
+                        long rest = (hash << precision) | (1L << (precision - 1));
+                        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+                        if (rank > registers[index])
+                                registers[index] = rank;
+                }
+
+                public HyperLogLog merge(HyperLogLog other) {
+                        if (other.precision != precision)
+                                throw new IllegalArgumentException("Cannot merge sketches of different precision");
+                        for (int i = 0; i < registers.length; i++)
+                                registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+                        return this;
+                }
+
+                public long estimate() {
+                        int m = registers.length;
+                        double sum = 0;
+                        int zeros = 0;
+                        for (byte register : registers) {
+                                sum += 1.0 / (1L << register);
+                                if (register == 0)
+                                        zeros++;
+                        }
+                        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+                        double estimate = alpha * m * m / sum;
+                        // Linear counting is more accurate while many registers are still empty
+                        if (estimate <= 2.5 * m && zeros > 0)
+                                estimate = m * Math.log((double) m / zeros);
+                        return Math.round(estimate);
+                }
+        }
+
+        /**
+         * Count-Min sketch: depth rows of width counters. Estimates never undercount;
+         * they overcount by at most epsilon x total weight with probability 1 - delta.
+         */
+        public static final class CountMinSketch {
+                private final int width;
+                private final long[][] counts;
+                private long total;
+
+                public CountMinSketch(double epsilon, double delta) {
+                        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1))
+                                throw new IllegalArgumentException("epsilon and delta must be in (0, 1)");
+                        this.width = (int) Math.ceil(Math.E / epsilon);
+                        this.counts = new long[(int) Math.ceil(Math.log(1 / delta))][width];
+                }
+
+                public void add(Object key, long weight) {
+                        long hash = hash(key);
+                        for (int row = 0; row < counts.length; row++)
+                                counts[row][index(hash, row)] += weight;
+                        total += weight;
+                }
+
+                public long estimate(Object key) {
+                        long hash = hash(key);
+                        long estimate = Long.MAX_VALUE;
+                        for (int row = 0; row < counts.length; row++)
+                                estimate = Math.min(estimate, counts[row][index(hash, row)]);
+                        return estimate;
+                }
+
+                // Sum of all weights added
+                public long total() {
+                        return total;
+                }
+
+                public CountMinSketch merge(CountMinSketch other) {
+                        if (other.width != width || other.counts.length != counts.length)
+                                throw new IllegalArgumentException("Cannot merge sketches of different dimensions");
+                        for (int row = 0; row < counts.length; row++) {
+                                for (int column = 0; column < width; column++)
+                                        counts[row][column] += other.counts[row][column];
+                        }
+                        total += other.total;
+                        return this;
+                }
+
+                // Row hashes derived from two halves of one 64-bit hash
+                private int index(long hash, int row) {
+                        int combined = (int) hash + row * (int) (hash >>> 32);
+                        return Math.floorMod(combined, width);
+                }
+        }
+
+        /**
+         * Space-Saving heavy-hitter summary over at most capacity keys. Any key whose
+         * weight exceeds total / capacity is guaranteed to be reported.
+         *
+         * Counters sit in a binary min-heap on count, held in parallel arrays, with
+         * a map from key to heap slot. A tracked key is updated in O(1) plus a sift,
+         * the smallest counter is always at the root, and replacing it costs
+         * O(log capacity).
+         */
+        public static final class SpaceSaving<K> {
+                private final int capacity;
+                private final Object[] keys;
+                private final long[] counts;
+                private final long[] errors;
+                private final Map<K, Integer> slots;
+                private int size;
+
+                public SpaceSaving(int capacity) {
+                        if (capacity < 1)
+                                throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+                        this.capacity = capacity;
+                        this.keys = new Object[capacity];
+                        this.counts = new long[capacity];
+                        this.errors = new long[capacity];
+                        this.slots = new HashMap<>(capacity * 2);
+                }
+
+                public void add(K key, long weight) {
+                        Integer slot = slots.get(key);
+                        if (slot != null) {
+                                counts[slot] += weight;
+                                sift(slot);
+                        } else if (size < capacity) {
+                                push(key, weight, 0);
+                        } else {
+                                // Replace the smallest counter; the new key inherits its count as error
+                                slots.remove(keyAt(0));
+                                keys[0] = key;
+                                errors[0] = counts[0];
+                                counts[0] += weight;
+                                slots.put(key, 0);
+                                sift(0);
+                        }
+                }
+
+                public SpaceSaving<K> merge(SpaceSaving<K> other) {
+                        // A key missing from a full summary may have had up to its smallest count there
+                        long floor = minimum();
+                        long otherFloor = other.minimum();
+                        Set<K> union = new HashSet<>(slots.keySet());
+                        union.addAll(other.slots.keySet());
+
+                        List<HeavyHitter<K>> merged = new ArrayList<>(union.size());
+                        for (K key : union) {
+                                Integer mine = slots.get(key);
+                                Integer theirs = other.slots.get(key);
+                                merged.add(new HeavyHitter<>(key,
+                                                (mine == null ? floor : counts[mine])
+                                                                + (theirs == null ? otherFloor : other.counts[theirs]),
+                                                (mine == null ? floor : errors[mine])
+                                                                + (theirs == null ? otherFloor : other.errors[theirs])));
+                        }
+                        merged.sort(Comparator.comparingLong(HeavyHitter<K>::count).reversed());
+
+                        slots.clear();
+                        Arrays.fill(keys, null);
+                        size = 0;
+                        for (HeavyHitter<K> hitter : merged.subList(0, Math.min(capacity, merged.size())))
+                                push(hitter.key(), hitter.count(), hitter.error());
+                        return this;
+                }
+
+                // Tracked keys, heaviest first
+                public List<HeavyHitter<K>> top() {
+                        List<HeavyHitter<K>> top = new ArrayList<>(size);
+                        for (int slot = 0; slot < size; slot++)
+                                top.add(new HeavyHitter<>(keyAt(slot), counts[slot], errors[slot]));
+                        top.sort(Comparator.comparingLong(HeavyHitter<K>::count).reversed());
+                        return top;
+                }
+
+                // Smallest tracked count once full, otherwise zero
+                private long minimum() {
+                        return size < capacity ? 0 : counts[0];
+                }
+
+                private void push(K key, long count, long error) {
+                        int slot = size++;
+                        keys[slot] = key;
+                        counts[slot] = count;
+                        errors[slot] = error;
+                        slots.put(key, slot);
+                        sift(slot);
+                }
+
+                // Restores heap order around a slot whose count changed, in either direction
+                private void sift(int slot) {
+                        while (slot > 0 && counts[slot] < counts[(slot - 1) / 2]) {
+                                swap(slot, (slot - 1) / 2);
+                                slot = (slot - 1) / 2;
+                        }
+                        while (true) {
+                                int child = 2 * slot + 1;
+                                if (child >= size)
+                                        return;
+                                if (child + 1 < size && counts[child + 1] < counts[child])
+                                        child++;
+                                if (counts[slot] <= counts[child])
+                                        return;
+                                swap(slot, child);
+                                slot = child;
+                        }
+                }
+
+                private void swap(int a, int b) {
+                        Object key = keys[a];
+                        keys[a] = keys[b];
+                        keys[b] = key;
+                        long count = counts[a];
+                        counts[a] = counts[b];
+                        counts[b] = count;
+                        long error = errors[a];
+                        errors[a] = errors[b];
+                        errors[b] = error;
+                        slots.put(keyAt(a), a);
+                        slots.put(keyAt(b), b);
+                }
+
+                @SuppressWarnings("unchecked")
+                private K keyAt(int slot) {
+                        return (K) keys[slot];
+                }
+        }
+
+        // 64-bit hash: FNV-1a over the characters of strings, the hash code otherwise, then mixed
+        static long hash(Object key) {
+                long hash;
+                if (key instanceof CharSequence chars) {
+                        hash = 0xcbf29ce484222325L;
+                        for (int i = 0; i < chars.length(); i++)
+                                hash = (hash ^ chars.charAt(i)) * 0x100000001b3L;
+                } else {
+                        hash = key == null ? 0 : key.hashCode();
+                }
+                // MurmurHash3 finalizer
+                hash ^= hash >>> 33;
+                hash *= 0xff51afd7ed558ccdL;
+                hash ^= hash >>> 33;
+                hash *= 0xc4ceb9fe1a85ec53L;
+                hash ^= hash >>> 33;
+                return hash;
+        }
+}
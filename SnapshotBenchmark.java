@@ -0,0 +1,66 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Compares reloading a dataset from a binary snapshot against parsing the same
+ * data from CSV. Usage: {@code java SnapshotBenchmark [rows] [directory]}.
+ */
+public class SnapshotBenchmark {
+
+        private static final int ITERATIONS = 5;
+
+        public static void main(String[] args) throws IOException {
+                int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+                Path directory = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("snapshot-benchmark");
+                Path csv = directory.resolve("transactions.csv");
+                Path snapshot = directory.resolve("transactions.txns");
+
+                TransactionTable table = TransactionGenerator.table(rows, 42);
+                TransactionWriter.csv(table.stream(), csv);
+                TransactionSnapshot.write(table, snapshot);
+
+                System.out.printf("%,d transactions: CSV %,d bytes, snapshot %,d bytes%n%n", rows, Files.size(csv),
+                                Files.size(snapshot));
+
+                report("CSV (BufferedReader)", () -> {
+                        try (Stream<Transaction> transactions = TransactionReader.csv(csv)) {
+                                return toTable(transactions);
+                        }
+                });
+                report("CSV (memory-mapped)", () -> {
+                        try (Stream<Transaction> transactions = MappedTransactionReader.csv(csv)) {
+                                return toTable(transactions);
+                        }
+                });
+                report("Snapshot write", () -> {
+                        TransactionSnapshot.write(table, snapshot);
+                        return table;
+                });
+                report("Snapshot read", () -> TransactionSnapshot.read(snapshot));
+        }
+
+        private static TransactionTable toTable(Stream<Transaction> transactions) {
+                TransactionTable.Builder builder = TransactionTable.builder();
+                transactions.forEachOrdered(builder::add);
+                return builder.build();
+        }
+
+        // Best of ITERATIONS runs, after one warm-up run
+        private static void report(String name, Load load) throws IOException {
+                int size = load.run().size();
+                long best = Long.MAX_VALUE;
+                for (int i = 0; i < ITERATIONS; i++) {
+                        long start = System.nanoTime();
+                        size = load.run().size();
+                        best = Math.min(best, System.nanoTime() - start);
+                }
+                System.out.printf("%-22s %,10.1f ms  (%,d rows)%n", name, best / 1e6, size);
+        }
+
+        @FunctionalInterface
+        private interface Load {
+                TransactionTable run() throws IOException;
+        }
+}
@@ -0,0 +1,182 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Builds one summary and chart set from many export files, such as one file per
+ * store per day, reading several files at a time.
+ *
+ * Each file is parsed on a worker thread into its own partial accumulators.
+ * Partials are taken as they complete and parked until every earlier file has
+ * been merged, so the running totals still grow in file order. Merging in order
+ * gives exactly the same result as reading the files one after another, and a
+ * failure in any file surfaces as soon as it happens. Back-pressure comes from a
+ * window of at most twice the parallelism files submitted but not yet merged.
+ * Memory therefore depends on the parallelism, not on how many files there are.
+ *
+ * Workers are virtual threads, one per file, on a runtime that has them (Java 21
+ * and later), and a fixed pool of parallelism platform threads otherwise. The
+ * executor is picked at runtime, as {@link ColumnKernels} picks its kernel, and
+ * either way the window bounds how many files are open at once.
+ *
+ * Usage: {@code java StoreFileIngester <directory or files...> [-p parallelism]}.
+ */
+public final class StoreFileIngester {
+
+        // Merged report for all files
+        public record Result(StreamAPITutorial.TransactionSummary summary,
+                        List<StreamAPITutorialPartTwo.ChartData> charts) {
+        }
+
+        // Aggregates for a single file, by its position in the file list
+        private record Partial(int file, StreamAPITutorial.SummaryAccumulator summary,
+                        StreamAPITutorialPartTwo.ChartAccumulator charts) {
+        }
+
+        // Worker threads are numbered from 1 after this prefix
+        private static final String THREAD_NAME = "store-file-ingester-";
+
+        private StoreFileIngester() {
+        }
+
+        public static void main(String[] args) throws IOException {
+                int parallelism = Runtime.getRuntime().availableProcessors();
+                List<Path> files = new ArrayList<>();
+                for (int i = 0; i < args.length; i++) {
+                        if (args[i].equals("-p")) {
+                                if (++i == args.length)
+                                        usage();
+                                parallelism = Integer.parseInt(args[i]);
+                        } else {
+                                files.addAll(sources(Path.of(args[i])));
+                        }
+                }
+                if (files.isEmpty())
+                        usage();
+
+                Result result = ingest(files, parallelism);
+                StreamAPITutorial.printGrid(result.summary());
+                StreamAPITutorialPartTwo.printBarCharts(result.charts());
+        }
+
+        private static void usage() {
+                System.err.println("Usage: java StoreFileIngester <directory or files...> [-p parallelism]");
+                System.exit(1);
+        }
+
+        // Files in a directory that TransactionReader can open, by name; a file argument as is
+        static List<Path> sources(Path path) throws IOException {
+                if (!Files.isDirectory(path))
+                        return List.of(path);
+                try (Stream<Path> entries = Files.list(path)) {
+                        return entries.filter(entry -> TransactionReader.Format.of(entry) != null).sorted().toList();
+                }
+        }
+
+        public static Result ingest(List<Path> files, int parallelism) throws IOException {
+                if (parallelism < 1)
+                        throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+
+                ExecutorService executor = executor(parallelism);
+                try {
+                        StreamAPITutorial.SummaryAccumulator summary = new StreamAPITutorial.SummaryAccumulator();
+                        StreamAPITutorialPartTwo.ChartAccumulator charts = new StreamAPITutorialPartTwo.ChartAccumulator();
+                        CompletionService<Partial> completions = new ExecutorCompletionService<>(executor);
+                        // Completed partials waiting for an earlier file, by position
+                        Map<Integer, Partial> parked = new HashMap<>();
+                        int submitted = 0;
+                        int merged = 0;
+
+                        while (merged < files.size()) {
+                                while (submitted < files.size() && submitted - merged < 2 * parallelism) {
+                                        int file = submitted++;
+                                        completions.submit(() -> parse(file, files.get(file)));
+                                }
+                                Partial completed = next(completions);
+                                parked.put(completed.file(), completed);
+                                for (Partial partial; (partial = parked.remove(merged)) != null; merged++) {
+                                        summary.merge(partial.summary());
+                                        charts.merge(partial.charts());
+                                }
+                        }
+                        return new Result(summary.finish(), charts.finish());
+                } finally {
+                        executor.shutdownNow();
+                }
+        }
+
+        // Virtual threads when the runtime has them, a fixed pool of daemon threads otherwise
+        private static ExecutorService executor(int parallelism) {
+                ExecutorService virtual = virtualThreadExecutor();
+                if (virtual != null)
+                        return virtual;
+                AtomicInteger threads = new AtomicInteger();
+                return Executors.newFixedThreadPool(parallelism, task -> {
+                        Thread thread = new Thread(task, THREAD_NAME + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                });
+        }
+
+        // Thread.ofVirtual().name(THREAD_NAME, 1).factory() per task, or null before Java 21
+        private static ExecutorService virtualThreadExecutor() {
+                try {
+                        Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                        Object named = builder.getMethod("name", String.class, long.class)
+                                        .invoke(Thread.class.getMethod("ofVirtual").invoke(null), THREAD_NAME, 1L);
+                        ThreadFactory factory = (ThreadFactory) builder.getMethod("factory").invoke(named);
+                        return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                                        .invoke(null, factory);
+                } catch (ReflectiveOperationException | LinkageError e) {
+                        return null;
+                }
+        }
+
+        private static Partial parse(int index, Path file) throws IOException {
+                Partial partial = new Partial(index, new StreamAPITutorial.SummaryAccumulator(),
+                                new StreamAPITutorialPartTwo.ChartAccumulator());
+                boolean csv = TransactionReader.Format.of(file) == TransactionReader.Format.CSV;
+                try (Stream<Transaction> transactions = csv ? MappedTransactionReader.csv(file) : TransactionReader.open(file)) {
+                        transactions.forEachOrdered(tx -> {
+                                partial.summary().accept(tx);
+                                partial.charts().accept(tx);
+                        });
+                }
+                return partial;
+        }
+
+        // Unwraps a worker failure into the exception the caller would have seen reading the file itself
+        private static Partial next(CompletionService<Partial> completions) throws IOException {
+                try {
+                        return completions.take().get();
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while ingesting store files");
+                } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        if (cause instanceof IOException io)
+                                throw io;
+                        if (cause instanceof UncheckedIOException io)
+                                throw io.getCause();
+                        if (cause instanceof RuntimeException runtime)
+                                throw runtime;
+                        if (cause instanceof Error error)
+                                throw error;
+                        throw new IOException(cause);
+                }
+        }
+}
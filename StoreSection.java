@@ -0,0 +1,28 @@
+public enum StoreSection implements Categorical {
+        PANTRY("Pantry"),
+        MIXED("Mixed"),
+        BAKERY("Bakery"),
+        DAIRY("Dairy");
+
+        private static final StoreSection[] VALUES = values();
+
+        private final String label;
+
+        StoreSection(String label) {
+                this.label = label;
+        }
+
+        public static StoreSection parse(String text) {
+                return Categorical.parse(VALUES, text);
+        }
+
+        @Override
+        public String label() {
+                return label;
+        }
+
+        @Override
+        public String toString() {
+                return label;
+        }
+}
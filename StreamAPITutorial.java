@@ -1,24 +1,26 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.Arrays;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 class StreamAPITutorial {
 
         private static final int PAGE_SIZE = 5;
         private static final int PAGE_NUMBER = 1;
 
-        public record Item(String name, int quantity) {
-        }
-
-        public record Transaction(String transactionId, LocalDate date, LocalTime time, List<Item> items,
-                        String paymentMethod, String transactionType, String transactionStatus, String customerType,
-                        String storeSection) {
-        }
-
         // Summary record to hold computed values
         public record TransactionSummary(
                         long totalTransactions,
@@ -28,56 +30,45 @@ class StreamAPITutorial {
                         boolean anyCreditCard,
                         boolean allCompleted,
                         String mostUsedPaymentMethod,
-                        int totalItemsSold) {
+                        long totalItemsSold) {
         }
 
-        public static void main(String[] args) {
+        // Chronological order used to pick the first transaction
+        static final Comparator<Transaction> BY_DATE_TIME = Comparator.comparing(Transaction::date)
+                        .thenComparing(Transaction::time);
 
-                List<Transaction> transactions = getMonthlyTransactions();
+        static final Comparator<Transaction> BY_BASKET_SIZE = Comparator.comparingInt(Transaction::totalQuantity);
 
-                // Generate summary insights
-                printSummary(transactions);
+        private static final PaymentMethod[] PAYMENT_METHODS = PaymentMethod.values();
 
-                // Display paginated transaction report
-                printPaginatedTransactions(transactions, PAGE_NUMBER, PAGE_SIZE);
+        public static void main(String[] args) throws IOException {
 
-        }
+                if (args.length > 0) {
+                        // Summarise an exported CSV/JSONL file without loading it into memory
+                        try (Stream<Transaction> transactions = TransactionReader.open(Path.of(args[0]))) {
+                                printGrid(transactions.collect(summarizing()));
+                        }
+                        return;
+                }
 
-        private static void printPaginatedTransactions(List<Transaction> transactions, int pageNumber, int pageSize) {
-                final int skipCount = (pageNumber - 1) * pageSize;
-                final int totalPages = (int) Math.ceil((double) transactions.size() / pageSize);
+                List<Transaction> transactions = getMonthlyTransactions();
 
-                List<String[]> rows = transactions.stream()
-                                .skip(skipCount)
-                                .limit(pageSize)
-                                .map(StreamAPITutorial::recordToRow)
-                                .toList();
+                // Generate summary insights
+                printSummary(transactions);
 
-                String[] headers = {
-                                "Transaction ID", "Date", "Time", "Items",
-                                "Payment Method", "Transaction Type",
-                                "Transaction Status", "Customer Type", "Store Section"
-                };
+                // Display paginated transaction report from a (date, time, id) index built once for every page
+                TransactionPageIndex pages = TransactionPageIndex.of(transactions, PAGE_SIZE);
+                printPaginatedTransactions(pages.page(PAGE_NUMBER));
 
-                printTable("Transaction History", headers, rows, pageNumber, totalPages);
         }
 
-        private static String[] recordToRow(Transaction tx) {
-                String itemSummary = tx.items().stream()
-                                .map(item -> item.name() + " x " + item.quantity())
-                                .collect(Collectors.joining(", "));
-
-                return new String[] {
-                                tx.transactionId(),
-                                tx.date().toString(),
-                                tx.time().toString(),
-                                itemSummary,
-                                tx.paymentMethod(),
-                                tx.transactionType(),
-                                tx.transactionStatus(),
-                                tx.customerType(),
-                                tx.storeSection()
-                };
+        static void printPaginatedTransactions(TransactionPageIndex.Page page) {
+                // Rows are written field by field; no String[] per transaction
+                int[] widths = TableRenderer.transactionWidths(page.transactions());
+                printReport("Transaction History", TableRenderer.TRANSACTION_HEADERS, widths, table -> {
+                        for (Transaction tx : page.transactions())
+                                table.transaction(tx);
+                }, page.pageNumber(), page.totalPages());
         }
 
         /**
@@ -203,42 +194,32 @@ class StreamAPITutorial {
                                                 "New", "Mixed"));
         }
 
-        static void printTable(String reportTitle, String[] headers, List<String[]> rows, int pageNumber,
-                        int totalPages) {
-                // Calculate column widths based on headers and rows
-                int[] widths = new int[headers.length];
-                Arrays.setAll(widths, i -> headers[i].length());
-                rows.forEach(row -> Arrays.setAll(widths, i -> Math.max(widths[i], row[i].length())));
-
-                // Build the format string for each row
-                StringBuilder format = new StringBuilder();
-                for (int width : widths)
-                        format.append("| %-" + width + "s ");
-                format.append("|%n");
-
-                // Build the separator line
-                String separator = Arrays.stream(widths)
-                                .mapToObj(w -> "-".repeat(w + 2))
-                                .collect(Collectors.joining("+", "+", "+"));
-
-                // Print the report title (centered)
-                System.out.println("\n" + centerText(reportTitle.toUpperCase(), separator.length()));
-                System.out.println(separator);
-                System.out.printf(format.toString(), (Object[]) headers);
-                System.out.println(separator);
-
-                // Print each row
-                for (String[] row : rows) {
-                        System.out.printf(format.toString(), (Object[]) row);
-                }
+        // Writes the rows of a report table
+        @FunctionalInterface
+        private interface ReportBody {
+                void write(TableRenderer table) throws IOException;
+        }
 
-                // Footer separator
-                System.out.println(separator);
+        // Centered title, header, rows and centered page number, through one buffered writer
+        private static void printReport(String reportTitle, String[] headers, int[] widths, ReportBody body,
+                        int pageNumber, int totalPages) {
+                TableRenderer table = new TableRenderer(TableRenderer.stdout(), widths);
+                try {
+                        table.line("");
+                        table.centered(reportTitle.toUpperCase());
+                        table.header(headers);
+                        body.write(table);
+                        table.separator();
+                        table.centered("Page " + pageNumber + " / " + totalPages);
+                        table.line("\n\n\n\n\n\n\n\n");
+                        table.flush();
+                } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                }
+        }
 
-                // Centered page number display
-                String pageInfo = "Page " + pageNumber + " / " + totalPages;
-                System.out.println(centerText(pageInfo, separator.length()));
-                System.out.println("\n\n\n\n\n\n\n\n");
+        private static String padRight(String text, int width) {
+                return text.length() >= width ? text : text + " ".repeat(width - text.length());
         }
 
         static String centerText(String text, int width) {
@@ -247,20 +228,28 @@ class StreamAPITutorial {
         }
 
         public static void printSummary(List<Transaction> transactions) {
+                // Compute every insight in a single traversal and print formatted grid output
+                printGrid(transactions.stream().collect(summarizing()));
+        }
+
+        /**
+         * Computes the summary with one stream per insight. Kept as the reference
+         * implementation for {@link #summarizing()}.
+         */
+        public static TransactionSummary summarizeWithStreams(List<Transaction> transactions) {
                 // Total number of transactions using count()
                 long totalCount = transactions.stream()
                                 .count(); // Terminal operation: count()
 
                 // Number of completed transactions using filter() and count()
                 long completedCount = transactions.stream()
-                                .filter(tx -> tx.transactionStatus().equalsIgnoreCase("completed")) // Intermediate:
-                                                                                                    // filter()
+                                .filter(tx -> tx.transactionStatus() == TransactionStatus.COMPLETED) // Intermediate:
+                                                                                                     // filter()
                                 .count(); // Terminal: count()
 
                 // First transaction by date & time using sorted() and findFirst()
                 String firstTransactionId = transactions.stream()
-                                .sorted(Comparator.comparing(Transaction::date)
-                                                .thenComparing(Transaction::time)) // Intermediate: sorted()
+                                .sorted(BY_DATE_TIME) // Intermediate: sorted()
                                 .findFirst() // Terminal: findFirst()
                                 .map(Transaction::transactionId)
                                 .orElse("N/A");
@@ -273,31 +262,33 @@ class StreamAPITutorial {
 
                 // Check if any transaction was paid by credit card using anyMatch()
                 boolean anyCreditCard = transactions.stream()
-                                .anyMatch(tx -> tx.paymentMethod().equalsIgnoreCase("credit card")); // Terminal:
-                                                                                                     // anyMatch()
+                                .anyMatch(tx -> tx.paymentMethod() == PaymentMethod.CREDIT_CARD); // Terminal:
+                                                                                                  // anyMatch()
 
                 // Check if all transactions are completed using allMatch()
                 boolean allCompleted = transactions.stream()
-                                .allMatch(tx -> tx.transactionStatus().equalsIgnoreCase("completed")); // Terminal:
-                                                                                                       // allMatch()
+                                .allMatch(tx -> tx.transactionStatus() == TransactionStatus.COMPLETED); // Terminal:
+                                                                                                        // allMatch()
 
                 // Determine the most used payment method using groupingBy() and counting()
+                // (an EnumMap keeps declaration order, so ties go to the first method declared)
                 String mostUsedPaymentMethod = transactions.stream()
-                                .collect(Collectors.groupingBy(Transaction::paymentMethod, Collectors.counting()))
+                                .collect(Collectors.groupingBy(Transaction::paymentMethod,
+                                                () -> new EnumMap<>(PaymentMethod.class), Collectors.counting()))
                                 // Collector: groupingBy() with downstream counting()
                                 .entrySet().stream()
                                 .max(Map.Entry.comparingByValue()) // Stream over entrySet: max()
-                                .map(Map.Entry::getKey)
+                                .map(entry -> entry.getKey().label())
                                 .orElse("N/A");
 
-                // Calculate total items sold using flatMap(), mapToInt(), and sum()
-                int totalItemsSold = transactions.stream()
+                // Calculate total items sold using flatMap(), mapToLong(), and sum()
+                long totalItemsSold = transactions.stream()
                                 .flatMap(tx -> tx.items().stream()) // Intermediate: flatMap() to flatten item lists
-                                .mapToInt(Item::quantity) // Intermediate: mapToInt() to extract quantities
+                                .mapToLong(Item::quantity) // Intermediate: mapToLong() to extract quantities
                                 .sum(); // Terminal: sum()
 
                 // Create a summary record with all insights
-                TransactionSummary summary = new TransactionSummary(
+                return new TransactionSummary(
                                 totalCount,
                                 completedCount,
                                 firstTransactionId,
@@ -306,8 +297,137 @@ class StreamAPITutorial {
                                 allCompleted,
                                 mostUsedPaymentMethod,
                                 totalItemsSold);
-                // Print formatted grid output
-                printGrid(summary);
+        }
+
+        /**
+         * Answers the same eight questions as {@link #summarizeWithStreams(List)}
+         * against the columnar {@link TransactionTable}, using primitive row streams
+         * and byte codes instead of records.
+         */
+        public static TransactionSummary summarize(TransactionTable table) {
+                IntPredicate completed = table.matching(TransactionTable.Category.TRANSACTION_STATUS,
+                                TransactionStatus.COMPLETED);
+                IntPredicate creditCard = table.matching(TransactionTable.Category.PAYMENT_METHOD,
+                                PaymentMethod.CREDIT_CARD);
+
+                // Earliest row by (epoch day, second of day); ties keep the lower row
+                OptionalInt firstRow = table.rows()
+                                .reduce((a, b) -> table.epochDay(b) < table.epochDay(a)
+                                                || table.epochDay(b) == table.epochDay(a)
+                                                                && table.secondOfDay(b) < table.secondOfDay(a) ? b : a);
+                String firstTransactionId = firstRow.isPresent() ? table.transactionId(firstRow.getAsInt()) : "N/A";
+
+                // Payment method counts indexed by code
+                long[] paymentCounts = new long[PAYMENT_METHODS.length];
+                table.rows().forEach(row -> paymentCounts[table.code(TransactionTable.Category.PAYMENT_METHOD, row)]++);
+
+                return new TransactionSummary(
+                                table.size(),
+                                table.rows().filter(completed).count(),
+                                firstTransactionId,
+                                table.rows().map(row -> table.code(TransactionTable.Category.STORE_SECTION, row))
+                                                .distinct().count(),
+                                table.rows().anyMatch(creditCard),
+                                table.rows().allMatch(completed),
+                                mostUsedPaymentMethod(paymentCounts),
+                                table.quantities().asLongStream().sum());
+        }
+
+        // The n earliest transactions by date and time, oldest first
+        public static Collector<Transaction, ?, List<Transaction>> earliest(int n) {
+                return TopK.smallest(n, BY_DATE_TIME);
+        }
+
+        // The n latest transactions by date and time, newest first
+        public static Collector<Transaction, ?, List<Transaction>> latest(int n) {
+                return TopK.largest(n, BY_DATE_TIME);
+        }
+
+        // The n transactions with the most items sold, largest first
+        public static Collector<Transaction, ?, List<Transaction>> largestBaskets(int n) {
+                return TopK.largest(n, BY_BASKET_SIZE);
+        }
+
+        /**
+         * Collector that computes the same {@link TransactionSummary} as
+         * {@link #summarizeWithStreams(List)} in one pass. The earliest transaction is
+         * tracked with a running minimum instead of a sort, and partial results merge,
+         * so it is safe on parallel streams.
+         */
+        public static Collector<Transaction, ?, TransactionSummary> summarizing() {
+                return Collector.of(
+                                SummaryAccumulator::new,
+                                SummaryAccumulator::accept,
+                                SummaryAccumulator::merge,
+                                SummaryAccumulator::finish);
+        }
+
+        // Mutable per-segment state behind summarizing()
+        static final class SummaryAccumulator {
+                private long totalCount;
+                private long completedCount;
+                private Transaction first;
+                private final Set<StoreSection> sections = EnumSet.noneOf(StoreSection.class);
+                private boolean anyCreditCard;
+                private boolean allCompleted = true;
+                private final long[] paymentCounts = new long[PAYMENT_METHODS.length];
+                private long totalItemsSold;
+
+                void accept(Transaction tx) {
+                        totalCount++;
+                        boolean completed = tx.transactionStatus() == TransactionStatus.COMPLETED;
+                        if (completed)
+                                completedCount++;
+                        allCompleted &= completed;
+
+                        // Strictly earlier only, so ties keep the first one in encounter order
+                        if (first == null || BY_DATE_TIME.compare(tx, first) < 0)
+                                first = tx;
+
+                        sections.add(tx.storeSection());
+                        anyCreditCard |= tx.paymentMethod() == PaymentMethod.CREDIT_CARD;
+                        paymentCounts[tx.paymentMethod().ordinal()]++;
+
+                        for (Item item : tx.items())
+                                totalItemsSold += item.quantity();
+                }
+
+                // Combines a later segment into this one (left-to-right encounter order)
+                SummaryAccumulator merge(SummaryAccumulator other) {
+                        totalCount += other.totalCount;
+                        completedCount += other.completedCount;
+                        if (other.first != null && (first == null || BY_DATE_TIME.compare(other.first, first) < 0))
+                                first = other.first;
+                        sections.addAll(other.sections);
+                        anyCreditCard |= other.anyCreditCard;
+                        allCompleted &= other.allCompleted;
+                        for (int i = 0; i < paymentCounts.length; i++)
+                                paymentCounts[i] += other.paymentCounts[i];
+                        totalItemsSold += other.totalItemsSold;
+                        return this;
+                }
+
+                TransactionSummary finish() {
+                        return new TransactionSummary(
+                                        totalCount,
+                                        completedCount,
+                                        first == null ? "N/A" : first.transactionId(),
+                                        sections.size(),
+                                        anyCreditCard,
+                                        allCompleted,
+                                        mostUsedPaymentMethod(paymentCounts),
+                                        totalItemsSold);
+                }
+        }
+
+        // Label of the payment method with the highest count; ties go to the first one declared
+        static String mostUsedPaymentMethod(long[] countsByOrdinal) {
+                int best = -1;
+                for (int i = 0; i < countsByOrdinal.length; i++) {
+                        if (countsByOrdinal[i] > 0 && (best < 0 || countsByOrdinal[i] > countsByOrdinal[best]))
+                                best = i;
+                }
+                return best < 0 ? "N/A" : PAYMENT_METHODS[best].label();
         }
 
         public static void printGrid(TransactionSummary summary) {
@@ -332,7 +452,7 @@ class StreamAPITutorial {
 
                 while (i < fields.length) {
                         // Format key-value with fixed column width, aligned to the left
-                        String entry = String.format("%-25s: %-18s", fields[i], fields[i + 1]);
+                        String entry = padRight(fields[i], 25) + ": " + padRight(fields[i + 1], 18);
 
                         // Check if adding this entry exceeds line length
                         if (line.length() + entry.length() > maxLineLength) {
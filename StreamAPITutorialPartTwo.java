@@ -1,33 +1,81 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class StreamAPITutorialPartTwo {
 
-        public record Item(String name, int quantity) {
+        // Labels and values of one bar chart, in the shape printBarChart expects
+        public record ChartData(String title, String[] labels, long[] values) {
         }
 
-        public record Transaction(String transactionId, LocalDate date, LocalTime time, List<Item> items,
-                        String paymentMethod, String transactionType, String transactionStatus, String customerType,
-                        String storeSection) {
+        public static void main(String[] args) throws IOException {
+
+                List<ChartData> charts;
+                if (args.length > 0) {
+                        // Chart an exported file without loading it into memory; CSV is memory-mapped
+                        // and split across fork-join workers
+                        Path path = Path.of(args[0]);
+                        boolean csv = TransactionReader.Format.of(path) == TransactionReader.Format.CSV;
+                        try (Stream<Transaction> transactions = csv
+                                        ? MappedTransactionReader.csv(path).parallel()
+                                        : TransactionReader.open(path)) {
+                                charts = transactions.collect(charting());
+                        }
+                } else {
+                        // All ten charts from a single parallel pass over the transactions
+                        charts = getMonthlyTransactions().parallelStream().collect(charting());
+                }
+                printBarCharts(charts);
         }
 
-        public static void main(String[] args) {
+        /**
+         * Prints the ten charts built with one groupingBy pass per chart. Kept as the
+         * reference implementation for {@link #charting()}.
+         */
+        public static void printChartsWithStreams(List<Transaction> transactions) {
+                printBarCharts(chartsWithStreams(transactions));
+        }
 
-                List<Transaction> transactions = getMonthlyTransactions();
+        public static List<ChartData> chartsWithStreams(List<Transaction> transactions) {
+                return List.of(
+                                // CATEGORY 1: Time-Based Analytics
+                                itemsSoldByHour(transactions.stream()),
+                                transactionsByHour(transactions.stream()),
+                                averageItemsByHour(transactions.stream()),
+                                distinctItemsByHour(transactions.stream()),
+                                // CATEGORY 2: Week-Based Analytics
+                                transactionsPerWeek(transactions.stream()),
+                                itemsSoldPerWeek(transactions.stream()),
+                                // CATEGORY 3: Categorical Analytics
+                                transactionsByPaymentMethod(transactions.stream()),
+                                statusDistribution(transactions.stream()),
+                                // CATEGORY 4: Item-Level Analytics
+                                quantityPerItem(transactions.stream()),
+                                itemsBySection(transactions.stream()));
+        }
 
-                // ============================
-                // CATEGORY 1: Time-Based Analytics
-                // ============================
+        // ============================
+        // CATEGORY 1: Time-Based Analytics
+        // ============================
 
-                // Chart 1: Total Items Sold by Hourly Interval
-                // Stream API Methods: groupingBy (on hour) + summingInt, using TreeMap for
-                // sorted order
-                Map<Integer, Integer> itemsSoldByHour = transactions.stream()
+        // Chart 1: Total Items Sold by Hourly Interval
+        // Stream API Methods: groupingBy (on hour) + summingInt, using TreeMap for
+        // sorted order
+        static ChartData itemsSoldByHour(Stream<Transaction> transactions) {
+                Map<Integer, Integer> itemsSoldByHour = transactions
                                 .collect(Collectors.groupingBy(
                                                 tx -> tx.time().getHour(), // Group by hour (0–23)
                                                 TreeMap::new, // Keep keys sorted
@@ -38,12 +86,14 @@ public class StreamAPITutorialPartTwo {
                                 .map(hour -> String.format("%02d:00–%02d:00", hour, (hour + 1) % 24))
                                 .toArray(String[]::new);
 
-                int[] itemsSoldCounts = itemsSoldByHour.values().stream().mapToInt(Integer::intValue).toArray();
-                printBarChart("Total Items Sold by Hourly Interval", timeLabels, itemsSoldCounts);
+                long[] itemsSoldCounts = itemsSoldByHour.values().stream().mapToLong(Integer::longValue).toArray();
+                return new ChartData("Total Items Sold by Hourly Interval", timeLabels, itemsSoldCounts);
+        }
 
-                // Chart 2: Total Transactions Count by Hour
-                // Stream API Methods: groupingBy (on hour) + counting
-                Map<Integer, Long> transactionsByHour = transactions.stream()
+        // Chart 2: Total Transactions Count by Hour
+        // Stream API Methods: groupingBy (on hour) + counting
+        static ChartData transactionsByHour(Stream<Transaction> transactions) {
+                Map<Integer, Long> transactionsByHour = transactions
                                 .collect(Collectors.groupingBy(
                                                 tx -> tx.time().getHour(),
                                                 TreeMap::new,
@@ -53,12 +103,14 @@ public class StreamAPITutorialPartTwo {
                                 .map(hour -> String.format("%02d:00–%02d:00", hour, (hour + 1) % 24))
                                 .toArray(String[]::new);
 
-                int[] txCounts = transactionsByHour.values().stream().mapToInt(Long::intValue).toArray();
-                printBarChart("Total Transactions Count by Hour", txHourLabels, txCounts);
+                long[] txCounts = transactionsByHour.values().stream().mapToLong(Long::longValue).toArray();
+                return new ChartData("Total Transactions Count by Hour", txHourLabels, txCounts);
+        }
 
-                // Chart 3: Average Items per Transaction by Hour
-                // Stream API Methods: groupingBy (on hour) + averagingDouble
-                Map<Integer, Double> avgItemsByHour = transactions.stream()
+        // Chart 3: Average Items per Transaction by Hour
+        // Stream API Methods: groupingBy (on hour) + averagingDouble
+        static ChartData averageItemsByHour(Stream<Transaction> transactions) {
+                Map<Integer, Double> avgItemsByHour = transactions
                                 .collect(Collectors.groupingBy(
                                                 tx -> tx.time().getHour(),
                                                 TreeMap::new,
@@ -69,15 +121,17 @@ public class StreamAPITutorialPartTwo {
                                 .map(hour -> String.format("%02d:00–%02d:00", hour, (hour + 1) % 24))
                                 .toArray(String[]::new);
 
-                int[] avgItems = avgItemsByHour.values().stream()
-                                .mapToInt(val -> (int) Math.round(val))
+                long[] avgItems = avgItemsByHour.values().stream()
+                                .mapToLong(Math::round)
                                 .toArray();
-                printBarChart("Avg. Items per Transaction by Hour", avgItemHourLabels, avgItems);
+                return new ChartData("Avg. Items per Transaction by Hour", avgItemHourLabels, avgItems);
+        }
 
-                // Chart 4: Distinct Items Sold by Hour
-                // Stream API Methods: groupingBy (on hour) + flatMapping + collectingAndThen +
-                // toSet + size
-                Map<Integer, Long> distinctItemsByHour = transactions.stream()
+        // Chart 4: Distinct Items Sold by Hour
+        // Stream API Methods: groupingBy (on hour) + flatMapping + collectingAndThen +
+        // toSet + size
+        static ChartData distinctItemsByHour(Stream<Transaction> transactions) {
+                Map<Integer, Long> distinctItemsByHour = transactions
                                 .collect(Collectors.groupingBy(
                                                 tx -> tx.time().getHour(),
                                                 TreeMap::new,
@@ -92,90 +146,379 @@ public class StreamAPITutorialPartTwo {
                                 .map(hour -> String.format("%02d:00–%02d:00", hour, (hour + 1) % 24))
                                 .toArray(String[]::new);
 
-                int[] distinctItemCounts = distinctItemsByHour.values().stream().mapToInt(Long::intValue).toArray();
-                printBarChart("Distinct Items Sold by Hour", itemHourLabels, distinctItemCounts);
+                long[] distinctItemCounts = distinctItemsByHour.values().stream().mapToLong(Long::longValue).toArray();
+                return new ChartData("Distinct Items Sold by Hour", itemHourLabels, distinctItemCounts);
+        }
+
+        // Chart 4, approximate: a fixed-size HyperLogLog per hour instead of a set of item names
+        static ChartData approximateDistinctItemsByHour(Stream<Transaction> transactions, double relativeError) {
+                Map<Integer, Long> distinctItemsByHour = transactions
+                                .collect(Collectors.groupingBy(
+                                                tx -> tx.time().getHour(),
+                                                TreeMap::new,
+                                                Collectors.flatMapping(
+                                                                tx -> tx.items().stream().map(Item::name),
+                                                                Sketches.distinctCount(relativeError))));
+
+                String[] itemHourLabels = distinctItemsByHour.keySet().stream()
+                                .map(hour -> String.format("%02d:00–%02d:00", hour, (hour + 1) % 24))
+                                .toArray(String[]::new);
+
+                long[] distinctItemCounts = distinctItemsByHour.values().stream().mapToLong(Long::longValue).toArray();
+                return new ChartData("Distinct Items Sold by Hour", itemHourLabels, distinctItemCounts);
+        }
 
-                // ============================
-                // CATEGORY 2: Week-Based Analytics
-                // ============================
+        // ============================
+        // CATEGORY 2: Week-Based Analytics
+        // ============================
 
-                // Chart 5: Total Transactions per Week
-                // Stream API Methods: groupingBy (on custom week label) + counting
-                Map<String, Long> transactionPerWeek = transactions.stream()
+        // Chart 5: Total Transactions per Week
+        // Stream API Methods: groupingBy (on custom week label) + counting
+        static ChartData transactionsPerWeek(Stream<Transaction> transactions) {
+                Map<String, Long> transactionPerWeek = transactions
                                 .collect(Collectors.groupingBy(tx -> getWeekOfMonthLabel(tx.date()),
                                                 Collectors.counting()));
 
                 String[] weeks = transactionPerWeek.keySet().toArray(new String[0]);
-                int[] transactionCounts = transactionPerWeek.values().stream().mapToInt(Long::intValue).toArray();
-                printBarChart("Total Transactions Per Week", weeks, transactionCounts);
+                long[] transactionCounts = transactionPerWeek.values().stream().mapToLong(Long::longValue).toArray();
+                return new ChartData("Total Transactions Per Week", weeks, transactionCounts);
+        }
 
-                // Chart 6: Total Items Sold per Week
-                // Stream API Methods: groupingBy (on week) + summingInt
-                Map<String, Integer> totalItemsSoldPerWeek = transactions.stream()
+        // Chart 6: Total Items Sold per Week
+        // Stream API Methods: groupingBy (on week) + summingInt
+        static ChartData itemsSoldPerWeek(Stream<Transaction> transactions) {
+                Map<String, Integer> totalItemsSoldPerWeek = transactions
                                 .collect(Collectors.groupingBy(tx -> getWeekOfMonthLabel(tx.date()),
                                                 Collectors.summingInt(tx -> tx.items().stream().mapToInt(Item::quantity)
                                                                 .sum())));
 
                 String[] weekLabels = totalItemsSoldPerWeek.keySet().toArray(new String[0]);
-                int[] itemCounts = totalItemsSoldPerWeek.values().stream().mapToInt(Integer::intValue).toArray();
-                printBarChart("Total Items Sold per Week", weekLabels, itemCounts);
-
-                // ============================
-                // CATEGORY 3: Categorical Analytics
-                // ============================
-
-                // Chart 7: Count of Transactions per Payment Method
-                // Stream API Methods: groupingBy + counting
-                Map<String, Long> countByPaymentMethod = transactions.stream()
-                                .collect(Collectors.groupingBy(Transaction::paymentMethod, Collectors.counting()));
-
-                String[] paymentLabels = countByPaymentMethod.keySet().toArray(new String[0]);
-                int[] paymentCounts = countByPaymentMethod.values().stream().mapToInt(Long::intValue).toArray();
-                printBarChart("Transactions by Payment Method", paymentLabels, paymentCounts);
-
-                // Chart 8: Transaction Status Distribution
-                // Stream API Methods: groupingBy + counting
-                Map<String, Long> statusCounts = transactions.stream()
-                                .collect(Collectors.groupingBy(Transaction::transactionStatus, Collectors.counting()));
-
-                String[] statusLabels = statusCounts.keySet().toArray(new String[0]);
-                int[] statusCount = statusCounts.values().stream().mapToInt(Long::intValue).toArray();
-                printBarChart("Transaction Status Distribution", statusLabels, statusCount);
-
-                // ============================
-                // CATEGORY 4: Item-Level Analytics
-                // ============================
-
-                // Chart 9: Total Quantity Sold per Item
-                // Stream API Methods: flatMap + groupingBy + summingInt
-                Map<String, Integer> quantityPerItem = transactions.stream()
+                long[] itemCounts = totalItemsSoldPerWeek.values().stream().mapToLong(Integer::longValue).toArray();
+                return new ChartData("Total Items Sold per Week", weekLabels, itemCounts);
+        }
+
+        // ============================
+        // CATEGORY 3: Categorical Analytics
+        // ============================
+
+        // Chart 7: Count of Transactions per Payment Method
+        // Stream API Methods: groupingBy (into an EnumMap) + counting
+        static ChartData transactionsByPaymentMethod(Stream<Transaction> transactions) {
+                Map<PaymentMethod, Long> countByPaymentMethod = transactions
+                                .collect(Collectors.groupingBy(Transaction::paymentMethod,
+                                                () -> new EnumMap<>(PaymentMethod.class), Collectors.counting()));
+
+                String[] paymentLabels = countByPaymentMethod.keySet().stream()
+                                .map(PaymentMethod::label)
+                                .toArray(String[]::new);
+                long[] paymentCounts = countByPaymentMethod.values().stream().mapToLong(Long::longValue).toArray();
+                return new ChartData("Transactions by Payment Method", paymentLabels, paymentCounts);
+        }
+
+        // Chart 8: Transaction Status Distribution
+        // Stream API Methods: groupingBy (into an EnumMap) + counting
+        static ChartData statusDistribution(Stream<Transaction> transactions) {
+                Map<TransactionStatus, Long> statusCounts = transactions
+                                .collect(Collectors.groupingBy(Transaction::transactionStatus,
+                                                () -> new EnumMap<>(TransactionStatus.class), Collectors.counting()));
+
+                String[] statusLabels = statusCounts.keySet().stream()
+                                .map(TransactionStatus::label)
+                                .toArray(String[]::new);
+                long[] statusCount = statusCounts.values().stream().mapToLong(Long::longValue).toArray();
+                return new ChartData("Transaction Status Distribution", statusLabels, statusCount);
+        }
+
+        // ============================
+        // CATEGORY 4: Item-Level Analytics
+        // ============================
+
+        // Chart 9: Total Quantity Sold per Item
+        // Stream API Methods: flatMap + groupingBy + summingInt
+        static ChartData quantityPerItem(Stream<Transaction> transactions) {
+                Map<String, Integer> quantityPerItem = transactions
                                 .flatMap(tx -> tx.items().stream())
                                 .collect(Collectors.groupingBy(Item::name, Collectors.summingInt(Item::quantity)));
 
                 String[] items = quantityPerItem.keySet().toArray(new String[0]);
-                int[] quantity = quantityPerItem.values().stream().mapToInt(Integer::intValue).toArray();
-                printBarChart("Total Quantity Sold per Item", items, quantity);
+                long[] quantity = quantityPerItem.values().stream().mapToLong(Integer::longValue).toArray();
+                return new ChartData("Total Quantity Sold per Item", items, quantity);
+        }
 
-                // Chart 10: Items Sold by Store Section
-                // Stream API Methods: groupingBy + summingInt (nested stream for item
-                // quantities)
-                Map<String, Integer> itemsBySection = transactions.stream()
+        // Chart 10: Items Sold by Store Section
+        // Stream API Methods: groupingBy (into an EnumMap) + summingInt (nested stream
+        // for item quantities)
+        static ChartData itemsBySection(Stream<Transaction> transactions) {
+                Map<StoreSection, Integer> itemsBySection = transactions
                                 .collect(Collectors.groupingBy(Transaction::storeSection,
+                                                () -> new EnumMap<>(StoreSection.class),
                                                 Collectors.summingInt(tx -> tx.items().stream().mapToInt(Item::quantity)
                                                                 .sum())));
 
-                String[] storeSections = itemsBySection.keySet().toArray(new String[0]);
-                int[] itemsCount = itemsBySection.values().stream().mapToInt(Integer::intValue).toArray();
-                printBarChart("Items Sold by Store Section", storeSections, itemsCount);
+                String[] storeSections = itemsBySection.keySet().stream()
+                                .map(StoreSection::label)
+                                .toArray(String[]::new);
+                long[] itemsCount = itemsBySection.values().stream().mapToLong(Integer::longValue).toArray();
+                return new ChartData("Items Sold by Store Section", storeSections, itemsCount);
+        }
+
+        // ============================
+        // Unboxed variants: charts 1-3, 5-8 and 10 grouped into primitive arrays
+        // ============================
 
+        static ChartData itemsSoldByHourUnboxed(Stream<Transaction> transactions) {
+                return transactions
+                                .collect(IntGrouping.summingLong(24, tx -> tx.time().getHour(), Transaction::totalQuantity))
+                                .sumChart("Total Items Sold by Hourly Interval", StreamAPITutorialPartTwo::hourLabel);
+        }
+
+        static ChartData transactionsByHourUnboxed(Stream<Transaction> transactions) {
+                return transactions.collect(IntGrouping.counting(24, tx -> tx.time().getHour()))
+                                .countChart("Total Transactions Count by Hour", StreamAPITutorialPartTwo::hourLabel);
+        }
+
+        static ChartData averageItemsByHourUnboxed(Stream<Transaction> transactions) {
+                return transactions
+                                .collect(IntGrouping.summingLong(24, tx -> tx.time().getHour(), Transaction::totalQuantity))
+                                .averageChart("Avg. Items per Transaction by Hour", StreamAPITutorialPartTwo::hourLabel);
+        }
+
+        static ChartData transactionsPerWeekUnboxed(Stream<Transaction> transactions) {
+                return transactions.collect(IntGrouping.counting(5, tx -> getWeekOfMonth(tx.date())))
+                                .countChart("Total Transactions Per Week", week -> "Week " + week);
+        }
+
+        static ChartData itemsSoldPerWeekUnboxed(Stream<Transaction> transactions) {
+                return transactions
+                                .collect(IntGrouping.summingLong(5, tx -> getWeekOfMonth(tx.date()), Transaction::totalQuantity))
+                                .sumChart("Total Items Sold per Week", week -> "Week " + week);
+        }
+
+        static ChartData transactionsByPaymentMethodUnboxed(Stream<Transaction> transactions) {
+                return transactions
+                                .collect(IntGrouping.counting(PaymentMethod.values().length,
+                                                tx -> tx.paymentMethod().ordinal()))
+                                .countChart("Transactions by Payment Method", code -> PaymentMethod.values()[code].label());
+        }
+
+        static ChartData statusDistributionUnboxed(Stream<Transaction> transactions) {
+                return transactions
+                                .collect(IntGrouping.counting(TransactionStatus.values().length,
+                                                tx -> tx.transactionStatus().ordinal()))
+                                .countChart("Transaction Status Distribution",
+                                                code -> TransactionStatus.values()[code].label());
+        }
+
+        static ChartData itemsBySectionUnboxed(Stream<Transaction> transactions) {
+                return transactions
+                                .collect(IntGrouping.summingLong(StoreSection.values().length,
+                                                tx -> tx.storeSection().ordinal(), Transaction::totalQuantity))
+                                .sumChart("Items Sold by Store Section", code -> StoreSection.values()[code].label());
+        }
+
+        // ============================
+        // Item-level charts over a TransactionTable: array loops over interned item ids
+        // ============================
+
+        // Chart 4: one bitset of item ids per hour, no per-transaction stream or set
+        static ChartData distinctItemsByHour(TransactionTable table) {
+                long[] transactionsByHour = new long[24];
+                for (int row = 0; row < table.size(); row++)
+                        transactionsByHour[table.hour(row)]++;
+                return ChartAccumulator.hourChart("Distinct Items Sold by Hour", transactionsByHour,
+                                Arrays.stream(table.distinctItemsByHour(table.rows())).asLongStream().toArray());
+        }
+
+        // Chart 9, with items in the order the table first saw them
+        static ChartData quantityPerItem(TransactionTable table) {
+                long[] quantities = table.quantityPerItem(table.rows());
+                int[] ids = IntStream.range(0, quantities.length).filter(id -> quantities[id] > 0).toArray();
+                return new ChartData("Total Quantity Sold per Item",
+                                Arrays.stream(ids).mapToObj(table::itemName).toArray(String[]::new),
+                                Arrays.stream(ids).mapToLong(id -> quantities[id]).toArray());
+        }
+
+        /**
+         * Collector producing the same ten charts as
+         * {@link #printChartsWithStreams(List)} in a single traversal. Each thread
+         * fills its own partial aggregate and the partials are combined at the end,
+         * so the item quantity of a transaction is summed once and the hour and week
+         * keys are derived once.
+         */
+        public static Collector<Transaction, ?, List<ChartData>> charting() {
+                return Collector.of(
+                                ChartAccumulator::new,
+                                ChartAccumulator::accept,
+                                ChartAccumulator::merge,
+                                ChartAccumulator::finish,
+                                Collector.Characteristics.UNORDERED);
+        }
+
+        // Mutable per-thread state behind charting(); long counters, as a live feed never resets them
+        static final class ChartAccumulator {
+                private final long[] itemsByHour = new long[24];
+                private final long[] transactionsByHour = new long[24];
+                // Item-level counters are indexed by catalog id: quantities, and a bitset of ids per hour
+                private final ItemCatalog items = new ItemCatalog();
+                private long[] quantityPerItem = new long[64];
+                private final long[][] itemsSeenByHour = new long[24][1];
+                // Week counters are indexed 1..4, categorical counters by enum ordinal
+                private final long[] transactionsPerWeek = new long[5];
+                private final long[] itemsPerWeek = new long[5];
+                private final long[] countByPaymentMethod = new long[PaymentMethod.values().length];
+                private final long[] statusCounts = new long[TransactionStatus.values().length];
+                private final long[] itemsBySection = new long[StoreSection.values().length];
+
+                void accept(Transaction tx) {
+                        int hour = tx.time().getHour();
+                        int week = getWeekOfMonth(tx.date());
+
+                        int itemCount = 0;
+                        for (Item item : tx.items()) {
+                                itemCount += item.quantity();
+                                addItem(hour, items.id(item.name()), item.quantity());
+                        }
+
+                        itemsByHour[hour] += itemCount;
+                        transactionsByHour[hour]++;
+                        transactionsPerWeek[week]++;
+                        itemsPerWeek[week] += itemCount;
+                        countByPaymentMethod[tx.paymentMethod().ordinal()]++;
+                        statusCounts[tx.transactionStatus().ordinal()]++;
+                        itemsBySection[tx.storeSection().ordinal()] += itemCount;
+                }
+
+                ChartAccumulator merge(ChartAccumulator other) {
+                        for (int hour = 0; hour < 24; hour++) {
+                                itemsByHour[hour] += other.itemsByHour[hour];
+                                transactionsByHour[hour] += other.transactionsByHour[hour];
+                        }
+                        // The other catalog numbers items differently; translate its ids by name
+                        for (int otherId = 0; otherId < other.items.size(); otherId++) {
+                                int id = items.id(other.items.name(otherId));
+                                addItem(-1, id, other.quantityPerItem[otherId]);
+                                for (int hour = 0; hour < 24; hour++) {
+                                        if (seen(other.itemsSeenByHour[hour], otherId))
+                                                addItem(hour, id, 0);
+                                }
+                        }
+                        addAll(transactionsPerWeek, other.transactionsPerWeek);
+                        addAll(itemsPerWeek, other.itemsPerWeek);
+                        addAll(countByPaymentMethod, other.countByPaymentMethod);
+                        addAll(statusCounts, other.statusCounts);
+                        addAll(itemsBySection, other.itemsBySection);
+                        return this;
+                }
+
+                List<ChartData> finish() {
+                        long[] distinctCounts = new long[24];
+                        for (int hour = 0; hour < 24; hour++) {
+                                for (long word : itemsSeenByHour[hour])
+                                        distinctCounts[hour] += Long.bitCount(word);
+                        }
+                        // Built with merge in first-seen order, which orders colliding keys as groupingBy does
+                        Map<String, Long> quantities = new HashMap<>();
+                        for (int id = 0; id < items.size(); id++)
+                                quantities.merge(items.name(id), quantityPerItem[id], Long::sum);
+                        return toCharts(itemsByHour, transactionsByHour, distinctCounts, transactionsPerWeek, itemsPerWeek,
+                                        countByPaymentMethod, statusCounts, quantities, itemsBySection);
+                }
+
+                // Adds quantity to item id and marks it seen in hour, or in no hour when hour is -1
+                private void addItem(int hour, int id, long quantity) {
+                        if (id >= quantityPerItem.length)
+                                quantityPerItem = Arrays.copyOf(quantityPerItem, Math.max(id + 1, quantityPerItem.length * 2));
+                        quantityPerItem[id] += quantity;
+                        if (hour < 0)
+                                return;
+                        long[] seen = itemsSeenByHour[hour];
+                        if (id >>> 6 >= seen.length)
+                                seen = itemsSeenByHour[hour] = Arrays.copyOf(seen, Math.max((id >>> 6) + 1, seen.length * 2));
+                        seen[id >>> 6] |= 1L << id;
+                }
+
+                private static boolean seen(long[] bits, int id) {
+                        return id >>> 6 < bits.length && (bits[id >>> 6] & 1L << id) != 0;
+                }
+
+                // The ten charts from final counter values, shared with ConcurrentAggregator
+                static List<ChartData> toCharts(long[] itemsByHour, long[] transactionsByHour, long[] distinctItemsByHour,
+                                long[] transactionsPerWeek, long[] itemsPerWeek, long[] countByPaymentMethod,
+                                long[] statusCounts, Map<String, Long> quantityPerItem, long[] itemsBySection) {
+                        long[] averageItemsByHour = new long[24];
+                        for (int hour = 0; hour < 24; hour++) {
+                                if (transactionsByHour[hour] > 0)
+                                        averageItemsByHour[hour] = Math.round((double) itemsByHour[hour] / transactionsByHour[hour]);
+                        }
+
+                        return List.of(
+                                        hourChart("Total Items Sold by Hourly Interval", transactionsByHour, itemsByHour),
+                                        hourChart("Total Transactions Count by Hour", transactionsByHour,
+                                                        transactionsByHour),
+                                        hourChart("Avg. Items per Transaction by Hour", transactionsByHour,
+                                                        averageItemsByHour),
+                                        hourChart("Distinct Items Sold by Hour", transactionsByHour, distinctItemsByHour),
+                                        weekChart("Total Transactions Per Week", transactionsPerWeek, transactionsPerWeek),
+                                        weekChart("Total Items Sold per Week", transactionsPerWeek, itemsPerWeek),
+                                        toChart("Transactions by Payment Method", PaymentMethod.values(),
+                                                        countByPaymentMethod),
+                                        toChart("Transaction Status Distribution", TransactionStatus.values(),
+                                                        statusCounts),
+                                        new ChartData("Total Quantity Sold per Item",
+                                                        quantityPerItem.keySet().toArray(new String[0]),
+                                                        quantityPerItem.values().stream().mapToLong(Long::longValue)
+                                                                        .toArray()),
+                                        toChart("Items Sold by Store Section", StoreSection.values(),
+                                                        itemsBySection));
+                }
+
+                private static void addAll(long[] target, long[] source) {
+                        for (int i = 0; i < target.length; i++)
+                                target[i] += source[i];
+                }
+
+                // Hours that had transactions, in ascending order
+                static ChartData hourChart(String title, long[] transactionsByHour, long[] valuesByHour) {
+                        int[] hours = IntStream.range(0, 24).filter(hour -> transactionsByHour[hour] > 0).toArray();
+                        return new ChartData(title,
+                                        Arrays.stream(hours)
+                                                        .mapToObj(hour -> String.format("%02d:00–%02d:00", hour, (hour + 1) % 24))
+                                                        .toArray(String[]::new),
+                                        Arrays.stream(hours).mapToLong(hour -> valuesByHour[hour]).toArray());
+                }
+
+                // Weeks that had transactions, in ascending order
+                static ChartData weekChart(String title, long[] transactionsPerWeek, long[] valuesByWeek) {
+                        int[] weeks = IntStream.rangeClosed(1, 4).filter(week -> transactionsPerWeek[week] > 0).toArray();
+                        return new ChartData(title,
+                                        Arrays.stream(weeks).mapToObj(week -> "Week " + week).toArray(String[]::new),
+                                        Arrays.stream(weeks).mapToLong(week -> valuesByWeek[week]).toArray());
+                }
+
+                // Non-zero counters in declaration order, matching an EnumMap from groupingBy
+                static ChartData toChart(String title, Categorical[] constants, long[] counts) {
+                        int[] codes = IntStream.range(0, counts.length).filter(code -> counts[code] > 0).toArray();
+                        return new ChartData(title,
+                                        Arrays.stream(codes).mapToObj(code -> constants[code].label())
+                                                        .toArray(String[]::new),
+                                        Arrays.stream(codes).mapToLong(code -> counts[code]).toArray());
+                }
         }
 
         private static String getWeekOfMonthLabel(LocalDate date) {
+                return "Week " + getWeekOfMonth(date);
+        }
+
+        static String hourLabel(int hour) {
+                return String.format("%02d:00–%02d:00", hour, (hour + 1) % 24);
+        }
+
+        static int getWeekOfMonth(LocalDate date) {
                 int day = date.getDayOfMonth();
                 int daysInMonth = date.getMonth().length(date.isLeapYear());
                 int weekSize = (int) Math.ceil(daysInMonth / 4.0); // Divide month into 4 equal chunks
                 int week = ((day - 1) / weekSize) + 1;
-                return "Week " + Math.min(week, 4); // Ensure max week is 4
+                return Math.min(week, 4); // Ensure max week is 4
         }
 
         public static String getHourlyIntervalLabel(LocalTime time) {
@@ -187,34 +530,28 @@ public class StreamAPITutorialPartTwo {
                 return formatter.format(start) + " - " + formatter.format(end);
         }
 
-        public static void printBarChart(String title, String[] labels, int[] values) {
-                if (labels.length != values.length) {
-                        throw new IllegalArgumentException("Labels and values must have the same length.");
-                }
-
-                int maxLabelLength = 0;
-                int maxValue = 0;
-
-                for (int i = 0; i < labels.length; i++) {
-                        maxLabelLength = Math.max(maxLabelLength, labels[i].length());
-                        maxValue = Math.max(maxValue, values[i]);
+        // One renderer and one buffered write for the whole list
+        public static void printBarCharts(List<ChartData> charts) {
+                try {
+                        ChartRenderer.console().charts(charts).flush();
+                } catch (IOException e) {
+                        throw new UncheckedIOException(e);
                 }
+        }
 
-                int scaleFactor = maxValue > 50 ? maxValue / 50 : 1;
-                int chartWidth = 80;
+        public static void printBarChart(ChartData chart) {
+                printBarChart(chart.title(), chart.labels(), chart.values());
+        }
 
-                // Print centered title
-                if (title != null && !title.isEmpty()) {
-                        int padding = Math.max(0, (chartWidth - title.length()) / 2);
-                        System.out.printf("%" + (padding + title.length()) + "s%n", title);
-                        System.out.println();
-                }
+        public static void printBarChart(String title, String[] labels, int[] values) {
+                printBarChart(title, labels, Arrays.stream(values).asLongStream().toArray());
+        }
 
-                for (int i = 0; i < labels.length; i++) {
-                        String label = String.format("%-" + maxLabelLength + "s", labels[i]);
-                        int barLength = values[i] / scaleFactor;
-                        String bar = "█".repeat(barLength); // full block character
-                        System.out.printf("%s | %s (%d)%n%n", label, bar, values[i]);
+        public static void printBarChart(String title, String[] labels, long[] values) {
+                try {
+                        ChartRenderer.console().chart(title, labels, values).flush();
+                } catch (IOException e) {
+                        throw new UncheckedIOException(e);
                 }
         }
 
@@ -0,0 +1,63 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that the single-pass {@link StreamAPITutorial#summarizing()} collector
+ * gives the same {@link StreamAPITutorial.TransactionSummary} as the eight
+ * separate streams of {@link StreamAPITutorial#summarizeWithStreams(List)}, on
+ * sequential and parallel streams and over a {@link TransactionTable}.
+ *
+ * The datasets are the sample month, an empty list, a tie between every payment
+ * method, and generated data of several sizes in shuffled order, so the
+ * earliest transaction is not the first one.
+ *
+ * Usage: {@code java SummaryVerification}. Exits with status 1 on the first
+ * mismatch.
+ */
+public class SummaryVerification {
+
+        public static void main(String[] args) {
+                check("sample month", StreamAPITutorial.getMonthlyTransactions());
+                check("empty", List.of());
+                check("payment method tie", paymentMethodTie(40));
+                for (int size : new int[] { 1, 7, 1_000, 100_000 })
+                        check(size + " generated", shuffled(TransactionGenerator.list(size, size)));
+                System.out.println("All summaries match");
+        }
+
+        private static void check(String name, List<Transaction> transactions) {
+                StreamAPITutorial.TransactionSummary expected = StreamAPITutorial.summarizeWithStreams(transactions);
+                compare(name + " (sequential)", expected, transactions.stream().collect(StreamAPITutorial.summarizing()));
+                compare(name + " (parallel)", expected,
+                                transactions.parallelStream().collect(StreamAPITutorial.summarizing()));
+                compare(name + " (table)", expected, StreamAPITutorial.summarize(TransactionTable.of(transactions)));
+                System.out.printf("%-20s %s%n", name, expected);
+        }
+
+        private static void compare(String name, StreamAPITutorial.TransactionSummary expected,
+                        StreamAPITutorial.TransactionSummary actual) {
+                if (expected.equals(actual))
+                        return;
+                System.err.printf("Mismatch for %s%n  streams: %s%n  fused:   %s%n", name, expected, actual);
+                System.exit(1);
+        }
+
+        // Generated transactions with the four payment methods in turn, so the tie-break decides
+        private static List<Transaction> paymentMethodTie(int size) {
+                List<Transaction> transactions = new ArrayList<>(size);
+                for (Transaction tx : TransactionGenerator.list(size, 3)) {
+                        PaymentMethod method = PaymentMethod.values()[transactions.size() % 4];
+                        transactions.add(new Transaction(tx.transactionId(), tx.date(), tx.time(), tx.items(), method,
+                                        tx.transactionType(), tx.transactionStatus(), tx.customerType(), tx.storeSection()));
+                }
+                return transactions;
+        }
+
+        private static List<Transaction> shuffled(List<Transaction> transactions) {
+                List<Transaction> result = new ArrayList<>(transactions);
+                Collections.shuffle(result, new Random(transactions.size()));
+                return result;
+        }
+}
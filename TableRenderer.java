@@ -0,0 +1,322 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes fixed-width text tables in the layout of
+ * {@link StreamAPITutorial#printPaginatedTransactions}, without per-row format
+ * strings.
+ *
+ * Column widths are fixed up front. Cells are written straight into a buffered
+ * {@link Writer} and padded from a shared block of spaces. Transactions are
+ * written field by field, numbers digit by digit, and item lists without
+ * building the joined string, so a row allocates nothing.
+ *
+ * Widths come from one of two strategies. For a list, a first pass measures
+ * every row arithmetically. For a stream of unknown length, the widest of the
+ * first {@code sampleSize} rows is used. A cell wider than its column is still
+ * written in full and pushes that row's later columns to the right.
+ *
+ * Usage: {@code java TableRenderer <transactions.csv|.jsonl> [output.txt]}
+ * exports a file as a table, to stdout when no output file is given.
+ */
+public final class TableRenderer {
+
+        static final String[] TRANSACTION_HEADERS = {
+                        "Transaction ID", "Date", "Time", "Items",
+                        "Payment Method", "Transaction Type",
+                        "Transaction Status", "Customer Type", "Store Section"
+        };
+
+        private static final int DEFAULT_SAMPLE_SIZE = 10_000;
+        private static final char[] SPACES = filled(' ', 256);
+        private static final char[] DASHES = filled('-', 256);
+        private static final String NEW_LINE = System.lineSeparator();
+
+        private final Writer out;
+        private final int[] widths;
+        private final char[] digits = new char[20];
+
+        public TableRenderer(Writer out, int[] widths) {
+                this.out = out;
+                this.widths = widths.clone();
+        }
+
+        public static void main(String[] args) throws IOException {
+                if (args.length < 1 || args.length > 2) {
+                        System.err.println("Usage: java TableRenderer <transactions.csv|.jsonl> [output.txt]");
+                        System.exit(1);
+                }
+                Path input = Path.of(args[0]);
+                try (Stream<Transaction> transactions = TransactionReader.open(input)) {
+                        if (args.length > 1) {
+                                try (Writer out = Files.newBufferedWriter(Path.of(args[1]))) {
+                                        writeTransactions(transactions, DEFAULT_SAMPLE_SIZE, out);
+                                }
+                        } else {
+                                // Flushed by writeTransactions and left open, so System.out stays usable
+                                writeTransactions(transactions, DEFAULT_SAMPLE_SIZE, stdout());
+                        }
+                }
+        }
+
+        // A buffered writer over System.out; flush it, but closing it closes System.out
+        static Writer stdout() {
+                return new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        }
+
+        // Two passes: measures every transaction, then writes them
+        public static void writeTransactions(List<Transaction> transactions, Writer out) throws IOException {
+                int[] widths = transactionWidths(transactions);
+                TableRenderer table = new TableRenderer(out, widths);
+                table.header(TRANSACTION_HEADERS);
+                for (Transaction tx : transactions)
+                        table.transaction(tx);
+                table.separator();
+                out.flush();
+        }
+
+        // One pass: sizes the columns from the first sampleSize transactions, then streams the rest
+        public static void writeTransactions(Stream<Transaction> transactions, int sampleSize, Writer out)
+                        throws IOException {
+                Iterator<Transaction> iterator = transactions.iterator();
+                List<Transaction> sample = new ArrayList<>();
+                while (sample.size() < sampleSize && iterator.hasNext())
+                        sample.add(iterator.next());
+
+                TableRenderer table = new TableRenderer(out, transactionWidths(sample));
+                table.header(TRANSACTION_HEADERS);
+                for (Transaction tx : sample)
+                        table.transaction(tx);
+                sample.clear();
+                try {
+                        iterator.forEachRemaining(tx -> {
+                                try {
+                                        table.transaction(tx);
+                                } catch (IOException e) {
+                                        throw new UncheckedIOException(e);
+                                }
+                        });
+                } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                }
+                table.separator();
+                out.flush();
+        }
+
+        // Widths of the transaction columns, measured without building the cell strings
+        static int[] transactionWidths(Iterable<Transaction> transactions) {
+                int[] widths = new int[TRANSACTION_HEADERS.length];
+                Arrays.setAll(widths, i -> TRANSACTION_HEADERS[i].length());
+                for (Transaction tx : transactions) {
+                        widths[0] = Math.max(widths[0], tx.transactionId().length());
+                        widths[1] = Math.max(widths[1], dateLength(tx.date()));
+                        widths[2] = Math.max(widths[2], timeLength(tx.time()));
+                        widths[3] = Math.max(widths[3], itemsLength(tx.items()));
+                        widths[4] = Math.max(widths[4], tx.paymentMethod().label().length());
+                        widths[5] = Math.max(widths[5], tx.transactionType().label().length());
+                        widths[6] = Math.max(widths[6], tx.transactionStatus().label().length());
+                        widths[7] = Math.max(widths[7], tx.customerType().label().length());
+                        widths[8] = Math.max(widths[8], tx.storeSection().label().length());
+                }
+                return widths;
+        }
+
+        // Length of the line separator, the full width of a row
+        public int width() {
+                int width = 1;
+                for (int w : widths)
+                        width += w + 3;
+                return width;
+        }
+
+        // Separator, header row, separator
+        public void header(String[] headers) throws IOException {
+                separator();
+                row(headers);
+                separator();
+        }
+
+        public void separator() throws IOException {
+                for (int width : widths) {
+                        out.write('+');
+                        repeat(DASHES, width + 2);
+                }
+                out.write('+');
+                out.write(NEW_LINE);
+        }
+
+        public void row(String[] cells) throws IOException {
+                for (int i = 0; i < widths.length; i++)
+                        cell(i, cells[i]);
+                endRow();
+        }
+
+        // The columns of StreamAPITutorial's transaction history, written in place
+        public void transaction(Transaction tx) throws IOException {
+                cell(0, tx.transactionId());
+
+                startCell();
+                writeDate(tx.date());
+                endCell(1, dateLength(tx.date()));
+
+                startCell();
+                writeTime(tx.time());
+                endCell(2, timeLength(tx.time()));
+
+                startCell();
+                List<Item> items = tx.items();
+                for (int i = 0; i < items.size(); i++) {
+                        if (i > 0)
+                                out.write(", ");
+                        out.write(items.get(i).name());
+                        out.write(" x ");
+                        writeNumber(items.get(i).quantity());
+                }
+                endCell(3, itemsLength(items));
+
+                cell(4, tx.paymentMethod().label());
+                cell(5, tx.transactionType().label());
+                cell(6, tx.transactionStatus().label());
+                cell(7, tx.customerType().label());
+                cell(8, tx.storeSection().label());
+                endRow();
+        }
+
+        // A line centered across the table, as StreamAPITutorial.centerText does
+        public void centered(String text) throws IOException {
+                repeat(SPACES, (width() - text.length()) / 2);
+                out.write(text);
+                out.write(NEW_LINE);
+        }
+
+        public void line(String text) throws IOException {
+                out.write(text);
+                out.write(NEW_LINE);
+        }
+
+        public void flush() throws IOException {
+                out.flush();
+        }
+
+        private void cell(int column, String value) throws IOException {
+                startCell();
+                out.write(value);
+                endCell(column, value.length());
+        }
+
+        private void startCell() throws IOException {
+                out.write("| ");
+        }
+
+        private void endCell(int column, int length) throws IOException {
+                repeat(SPACES, widths[column] - length);
+                out.write(' ');
+        }
+
+        private void endRow() throws IOException {
+                out.write('|');
+                out.write(NEW_LINE);
+        }
+
+        private void repeat(char[] block, int count) throws IOException {
+                while (count > 0) {
+                        int n = Math.min(count, block.length);
+                        out.write(block, 0, n);
+                        count -= n;
+                }
+        }
+
+        // yyyy-MM-dd for four-digit years, as LocalDate.toString() writes it
+        private void writeDate(LocalDate date) throws IOException {
+                if (date.getYear() < 1000 || date.getYear() > 9999) {
+                        out.write(date.toString());
+                        return;
+                }
+                writeNumber(date.getYear());
+                out.write('-');
+                writeTwoDigits(date.getMonthValue());
+                out.write('-');
+                writeTwoDigits(date.getDayOfMonth());
+        }
+
+        // HH:mm, or HH:mm:ss when seconds are set, as LocalTime.toString() writes it
+        private void writeTime(LocalTime time) throws IOException {
+                if (time.getNano() != 0) {
+                        out.write(time.toString());
+                        return;
+                }
+                writeTwoDigits(time.getHour());
+                out.write(':');
+                writeTwoDigits(time.getMinute());
+                if (time.getSecond() != 0) {
+                        out.write(':');
+                        writeTwoDigits(time.getSecond());
+                }
+        }
+
+        private void writeTwoDigits(int value) throws IOException {
+                out.write('0' + value / 10);
+                out.write('0' + value % 10);
+        }
+
+        private void writeNumber(long value) throws IOException {
+                if (value == Long.MIN_VALUE) {
+                        out.write(Long.toString(value));
+                        return;
+                }
+                long remaining = Math.abs(value);
+                int position = digits.length;
+                do {
+                        digits[--position] = (char) ('0' + remaining % 10);
+                        remaining /= 10;
+                } while (remaining > 0);
+                if (value < 0)
+                        digits[--position] = '-';
+                out.write(digits, position, digits.length - position);
+        }
+
+        private static int dateLength(LocalDate date) {
+                return date.getYear() < 1000 || date.getYear() > 9999 ? date.toString().length() : 10;
+        }
+
+        private static int timeLength(LocalTime time) {
+                if (time.getNano() != 0)
+                        return time.toString().length();
+                return time.getSecond() != 0 ? 8 : 5;
+        }
+
+        // Length of "name x quantity, name x quantity"
+        private static int itemsLength(List<Item> items) {
+                int length = Math.max(0, 2 * (items.size() - 1));
+                for (Item item : items)
+                        length += item.name().length() + 3 + numberLength(item.quantity());
+                return length;
+        }
+
+        private static int numberLength(int value) {
+                if (value == Integer.MIN_VALUE)
+                        return 11;
+                int length = value < 0 ? 2 : 1;
+                for (int remaining = Math.abs(value); remaining >= 10; remaining /= 10)
+                        length++;
+                return length;
+        }
+
+        private static char[] filled(char c, int length) {
+                char[] chars = new char[length];
+                Arrays.fill(chars, c);
+                return chars;
+        }
+}
@@ -0,0 +1,189 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Rolling transaction and item totals over tumbling or sliding windows of the
+ * (date, time) timestamp, such as items sold in the last 15 minutes or a 7-day
+ * moving average.
+ *
+ * Time is cut into buckets whose length divides both the window size and the
+ * slide. A ring buffer holds one partial aggregate per bucket of the current
+ * window, and running totals are updated as buckets enter and leave. Memory is
+ * O(window / bucket) and each transaction costs O(1). A window is emitted to
+ * the consumer as soon as time moves past its end, either because a later
+ * transaction arrives or because {@link #advanceTo} is called.
+ *
+ * Transactions should arrive roughly in time order. A transaction older than
+ * the newest one is still counted while its bucket is inside the current
+ * window, but windows already emitted are not revised. Anything older is
+ * dropped and counted by {@link #late()}. Windows without transactions are not
+ * emitted. Not thread-safe.
+ */
+public final class TimeWindow {
+
+        // One emitted window: [start, end) and its totals
+        public record Window(LocalDateTime start, LocalDateTime end, long transactions, long items) {
+
+                // Items per transaction
+                public double averageItems() {
+                        return transactions == 0 ? 0 : (double) items / transactions;
+                }
+
+                // Transactions per unit of time, e.g. per hour over a trailing day
+                public double transactionsPer(Duration unit) {
+                        return transactions * ratio(unit);
+                }
+
+                // Items per unit of time, e.g. a daily moving average over seven days
+                public double itemsPer(Duration unit) {
+                        return items * ratio(unit);
+                }
+
+                private double ratio(Duration unit) {
+                        return (double) unit.getSeconds() / Duration.between(start, end).getSeconds();
+                }
+        }
+
+        private final long bucketSeconds;
+        private final int bucketsPerWindow;
+        private final int bucketsPerSlide;
+        private final Consumer<Window> consumer;
+
+        // Ring buffer indexed by bucket modulo bucketsPerWindow
+        private final long[] bucketIds;
+        private final long[] transactions;
+        private final long[] items;
+        private long windowTransactions;
+        private long windowItems;
+        // Newest bucket seen, or Long.MIN_VALUE before the first transaction
+        private long current = Long.MIN_VALUE;
+        private long late;
+
+        private TimeWindow(Duration size, Duration slide, Consumer<Window> consumer) {
+                long sizeSeconds = size.getSeconds();
+                long slideSeconds = slide.getSeconds();
+                if (sizeSeconds <= 0 || slideSeconds <= 0 || size.getNano() != 0 || slide.getNano() != 0)
+                        throw new IllegalArgumentException("Window size and slide must be whole positive seconds");
+                this.bucketSeconds = gcd(sizeSeconds, slideSeconds);
+                this.bucketsPerWindow = Math.toIntExact(sizeSeconds / bucketSeconds);
+                this.bucketsPerSlide = Math.toIntExact(slideSeconds / bucketSeconds);
+                this.consumer = consumer;
+                this.bucketIds = new long[bucketsPerWindow];
+                this.transactions = new long[bucketsPerWindow];
+                this.items = new long[bucketsPerWindow];
+                Arrays.fill(bucketIds, Long.MIN_VALUE);
+        }
+
+        // Windows of the given size, one emitted every slide
+        public static TimeWindow sliding(Duration size, Duration slide, Consumer<Window> consumer) {
+                return new TimeWindow(size, slide, consumer);
+        }
+
+        // Back-to-back windows of the given size
+        public static TimeWindow tumbling(Duration size, Consumer<Window> consumer) {
+                return new TimeWindow(size, size, consumer);
+        }
+
+        // Every window over transactions in time order, including the trailing ones
+        public static List<Window> of(Iterable<Transaction> transactions, Duration size, Duration slide) {
+                List<Window> windows = new ArrayList<>();
+                TimeWindow window = sliding(size, slide, windows::add);
+                for (Transaction tx : transactions)
+                        window.accept(tx);
+                window.flush();
+                return windows;
+        }
+
+        public void accept(Transaction tx) {
+                long bucket = Math.floorDiv(LocalDateTime.of(tx.date(), tx.time()).toEpochSecond(ZoneOffset.UTC),
+                                bucketSeconds);
+                if (current == Long.MIN_VALUE)
+                        current = bucket;
+                else if (bucket > current)
+                        advance(bucket);
+                else if (bucket <= current - bucketsPerWindow) {
+                        late++;
+                        return;
+                }
+
+                int slot = slot(bucket);
+                if (bucketIds[slot] != bucket) {
+                        bucketIds[slot] = bucket;
+                        transactions[slot] = 0;
+                        items[slot] = 0;
+                }
+                int itemCount = tx.totalQuantity();
+                transactions[slot]++;
+                items[slot] += itemCount;
+                windowTransactions++;
+                windowItems += itemCount;
+        }
+
+        // Emits every window ending at or before time, as when a transaction at that time arrives
+        public void advanceTo(LocalDateTime time) {
+                long bucket = Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), bucketSeconds);
+                if (current != Long.MIN_VALUE && bucket > current)
+                        advance(bucket);
+        }
+
+        // Emits the remaining windows until the newest transaction has slid out
+        public void flush() {
+                if (current != Long.MIN_VALUE)
+                        advance(current + bucketsPerWindow + bucketsPerSlide);
+        }
+
+        // Transactions dropped for arriving after their window had passed
+        public long late() {
+                return late;
+        }
+
+        // Moves the newest bucket to target, closing every bucket in between
+        private void advance(long target) {
+                while (current < target) {
+                        long next = current + 1;
+                        // Buckets next - window .. next - 1 are complete
+                        if (Math.floorMod(next, bucketsPerSlide) == 0 && windowTransactions > 0)
+                                emit(next);
+
+                        // next takes over the slot of the bucket leaving the window
+                        int slot = slot(next);
+                        if (bucketIds[slot] == next - bucketsPerWindow) {
+                                windowTransactions -= transactions[slot];
+                                windowItems -= items[slot];
+                        }
+                        bucketIds[slot] = next;
+                        transactions[slot] = 0;
+                        items[slot] = 0;
+                        current = next;
+
+                        // Nothing left to emit until new data arrives; skip to the target
+                        if (windowTransactions == 0 && target - current > bucketsPerWindow)
+                                current = target - bucketsPerWindow;
+                }
+        }
+
+        private void emit(long end) {
+                consumer.accept(new Window(
+                                time(end - bucketsPerWindow),
+                                time(end),
+                                windowTransactions,
+                                windowItems));
+        }
+
+        private LocalDateTime time(long bucket) {
+                return LocalDateTime.ofEpochSecond(bucket * bucketSeconds, 0, ZoneOffset.UTC);
+        }
+
+        private int slot(long bucket) {
+                return (int) Math.floorMod(bucket, (long) bucketsPerWindow);
+        }
+
+        private static long gcd(long a, long b) {
+                return b == 0 ? a : gcd(b, a % b);
+        }
+}
@@ -0,0 +1,85 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+
+/**
+ * Collectors that keep only the k smallest or largest elements of a stream,
+ * using a bounded heap: O(n log k) time and O(k) memory instead of a full sort.
+ *
+ * Results are in the same order, with the same elements, as
+ * {@code sorted(comparator).limit(k)} (or the reversed comparator for
+ * {@link #largest}). Equal elements keep their encounter order, also when
+ * partial heaps from a parallel stream are merged.
+ */
+public final class TopK {
+
+        private TopK() {
+        }
+
+        // The k smallest elements, in ascending order
+        public static <T> Collector<T, ?, List<T>> smallest(int k, Comparator<? super T> comparator) {
+                if (k < 0)
+                        throw new IllegalArgumentException("k must not be negative: " + k);
+                return Collector.of(
+                                () -> new Heap<T>(k, comparator),
+                                Heap::add,
+                                Heap::merge,
+                                Heap::toSortedList);
+        }
+
+        // The k largest elements, in descending order
+        public static <T> Collector<T, ?, List<T>> largest(int k, Comparator<? super T> comparator) {
+                return smallest(k, comparator.reversed());
+        }
+
+        // An element with its position among the elements seen so far, for stable ties
+        private record Entry<T>(T value, long sequence) {
+        }
+
+        private static final class Heap<T> {
+                private final int k;
+                private final Comparator<Entry<T>> order;
+                // Max-heap on order: the root is the first candidate to evict
+                private final PriorityQueue<Entry<T>> entries;
+                private long seen;
+
+                Heap(int k, Comparator<? super T> comparator) {
+                        this.k = k;
+                        this.order = Comparator.<Entry<T>, T>comparing(Entry::value, comparator)
+                                        .thenComparingLong(Entry::sequence);
+                        this.entries = new PriorityQueue<>(Math.max(1, Math.min(k, 1024)), order.reversed());
+                }
+
+                void add(T value) {
+                        offer(new Entry<>(value, seen++));
+                }
+
+                // Other holds elements encountered after this heap's elements
+                Heap<T> merge(Heap<T> other) {
+                        for (Entry<T> entry : other.entries)
+                                offer(new Entry<>(entry.value(), seen + entry.sequence()));
+                        seen += other.seen;
+                        return this;
+                }
+
+                List<T> toSortedList() {
+                        List<Entry<T>> sorted = new ArrayList<>(entries);
+                        sorted.sort(order);
+                        List<T> values = new ArrayList<>(sorted.size());
+                        for (Entry<T> entry : sorted)
+                                values.add(entry.value());
+                        return values;
+                }
+
+                private void offer(Entry<T> entry) {
+                        if (entries.size() < k) {
+                                entries.add(entry);
+                        } else if (k > 0 && order.compare(entry, entries.peek()) < 0) {
+                                entries.poll();
+                                entries.add(entry);
+                        }
+                }
+        }
+}
@@ -0,0 +1,28 @@
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public record Transaction(String transactionId, LocalDate date, LocalTime time, List<Item> items,
+                PaymentMethod paymentMethod, TransactionType transactionType, TransactionStatus transactionStatus,
+                CustomerType customerType, StoreSection storeSection) {
+
+        // Parses the categorical fields from their text form, once, at ingest
+        public Transaction(String transactionId, LocalDate date, LocalTime time, List<Item> items,
+                        String paymentMethod, String transactionType, String transactionStatus, String customerType,
+                        String storeSection) {
+                this(transactionId, date, time, items,
+                                PaymentMethod.parse(paymentMethod),
+                                TransactionType.parse(transactionType),
+                                TransactionStatus.parse(transactionStatus),
+                                CustomerType.parse(customerType),
+                                StoreSection.parse(storeSection));
+        }
+
+        // Basket size: total quantity across all items
+        public int totalQuantity() {
+                int total = 0;
+                for (Item item : items)
+                        total += item.quantity();
+                return total;
+        }
+}
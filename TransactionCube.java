@@ -0,0 +1,285 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pre-aggregated transaction counts and item sums, built once and then queried
+ * without touching the transactions again.
+ *
+ * The cube is a dense {@code long[]} over day x hour x every
+ * {@link TransactionTable.Category}, with one cell per combination. Days run from
+ * the earliest to the latest transaction date, so a month of data takes
+ * 30 x 24 x 192 cells per measure. A {@link Slice} restricts any of the
+ * dimensions and rolls the matching cells up into totals or per-value arrays.
+ *
+ * Charts 1-3, 5-8 and 10 of {@link StreamAPITutorialPartTwo} are roll-ups of this
+ * kind and {@link Slice#charts()} rebuilds them from cells. Distinct items by hour
+ * and quantity per item depend on item names, which the cube does not keep.
+ */
+public final class TransactionCube {
+
+        private static final TransactionTable.Category[] CATEGORIES = TransactionTable.Category.values();
+        // Cells per (day, hour), and the mixed-radix stride of each category within them
+        private static final int CATEGORY_CELLS;
+        private static final int[] STRIDES = new int[CATEGORIES.length];
+
+        static {
+                int cells = 1;
+                for (int c = CATEGORIES.length - 1; c >= 0; c--) {
+                        STRIDES[c] = cells;
+                        cells *= CATEGORIES[c].cardinality();
+                }
+                CATEGORY_CELLS = cells;
+        }
+
+        private final int firstDay;
+        private final int days;
+        private final long[] counts;
+        private final long[] items;
+
+        private TransactionCube(int firstDay, int days) {
+                this.firstDay = firstDay;
+                this.days = days;
+                int cells = Math.multiplyExact(Math.multiplyExact(days, 24), CATEGORY_CELLS);
+                this.counts = new long[cells];
+                this.items = new long[cells];
+        }
+
+        public static TransactionCube of(TransactionTable table) {
+                int first = Integer.MAX_VALUE;
+                int last = Integer.MIN_VALUE;
+                for (int row = 0; row < table.size(); row++) {
+                        first = Math.min(first, table.epochDay(row));
+                        last = Math.max(last, table.epochDay(row));
+                }
+                if (table.size() == 0)
+                        return new TransactionCube(0, 0);
+
+                TransactionCube cube = new TransactionCube(first, last - first + 1);
+                for (int row = 0; row < table.size(); row++) {
+                        int cell = 0;
+                        for (int c = 0; c < CATEGORIES.length; c++)
+                                cell += table.code(CATEGORIES[c], row) * STRIDES[c];
+                        cube.add(table.epochDay(row) - first, table.hour(row), cell, table.itemCount(row));
+                }
+                return cube;
+        }
+
+        public static TransactionCube of(List<Transaction> transactions) {
+                if (transactions.isEmpty())
+                        return new TransactionCube(0, 0);
+                long first = Long.MAX_VALUE;
+                long last = Long.MIN_VALUE;
+                for (Transaction tx : transactions) {
+                        first = Math.min(first, tx.date().toEpochDay());
+                        last = Math.max(last, tx.date().toEpochDay());
+                }
+
+                TransactionCube cube = new TransactionCube(Math.toIntExact(first), Math.toIntExact(last - first + 1));
+                for (Transaction tx : transactions) {
+                        int cell = 0;
+                        for (int c = 0; c < CATEGORIES.length; c++)
+                                cell += CATEGORIES[c].code(tx) * STRIDES[c];
+                        cube.add((int) (tx.date().toEpochDay() - first), tx.time().getHour(), cell, tx.totalQuantity());
+                }
+                return cube;
+        }
+
+        private void add(int day, int hour, int categoryCell, int itemCount) {
+                int index = (day * 24 + hour) * CATEGORY_CELLS + categoryCell;
+                counts[index]++;
+                items[index] += itemCount;
+        }
+
+        // Number of days covered, from the first transaction date to the last
+        public int days() {
+                return days;
+        }
+
+        public LocalDate firstDate() {
+                return LocalDate.ofEpochDay(firstDay);
+        }
+
+        // The whole cube, as the starting point for slicing
+        public Slice all() {
+                boolean[][] categories = new boolean[CATEGORIES.length][];
+                for (int c = 0; c < CATEGORIES.length; c++)
+                        categories[c] = filled(CATEGORIES[c].cardinality());
+                return new Slice(filled(days), filled(24), categories);
+        }
+
+        public List<StreamAPITutorialPartTwo.ChartData> charts() {
+                return all().charts();
+        }
+
+        private static boolean[] filled(int length) {
+                boolean[] values = new boolean[length];
+                Arrays.fill(values, true);
+                return values;
+        }
+
+        // Which group of a roll-up a cell belongs to
+        @FunctionalInterface
+        private interface Grouping {
+                int group(int day, int hour, int categoryCell);
+        }
+
+        /**
+         * A selection of days, hours and categorical values. Slices are immutable;
+         * every restriction returns a new slice, intersected with this one.
+         */
+        public final class Slice {
+                private final boolean[] days;
+                private final boolean[] hours;
+                private final boolean[][] categories;
+
+                private Slice(boolean[] days, boolean[] hours, boolean[][] categories) {
+                        this.days = days;
+                        this.hours = hours;
+                        this.categories = categories;
+                }
+
+                // Dates from one day to another, both inclusive
+                public Slice between(LocalDate from, LocalDate to) {
+                        boolean[] selected = days.clone();
+                        for (int day = 0; day < selected.length; day++) {
+                                long epochDay = firstDay + day;
+                                selected[day] &= epochDay >= from.toEpochDay() && epochDay <= to.toEpochDay();
+                        }
+                        return new Slice(selected, hours, categories);
+                }
+
+                // Hours from fromHour (inclusive) to toHour (exclusive)
+                public Slice hours(int fromHour, int toHour) {
+                        boolean[] selected = hours.clone();
+                        for (int hour = 0; hour < 24; hour++)
+                                selected[hour] &= hour >= fromHour && hour < toHour;
+                        return new Slice(days, selected, categories);
+                }
+
+                public Slice where(TransactionTable.Category category, Enum<?>... values) {
+                        boolean[] selected = new boolean[category.cardinality()];
+                        for (Enum<?> value : values) {
+                                if (category.decode(value.ordinal()) != value)
+                                        throw new IllegalArgumentException(value + " is not a " + category + " value");
+                                selected[value.ordinal()] = categories[category.ordinal()][value.ordinal()];
+                        }
+                        boolean[][] restricted = categories.clone();
+                        restricted[category.ordinal()] = selected;
+                        return new Slice(days, hours, restricted);
+                }
+
+                public long count() {
+                        return rollUp(1, (day, hour, cell) -> 0, TransactionCube.this.counts)[0];
+                }
+
+                public long items() {
+                        return rollUp(1, (day, hour, cell) -> 0, TransactionCube.this.items)[0];
+                }
+
+                public long[] countsByHour() {
+                        return rollUp(24, (day, hour, cell) -> hour, TransactionCube.this.counts);
+                }
+
+                public long[] itemsByHour() {
+                        return rollUp(24, (day, hour, cell) -> hour, TransactionCube.this.items);
+                }
+
+                // Indexed by day since firstDate()
+                public long[] countsByDay() {
+                        return rollUp(days.length, (day, hour, cell) -> day, TransactionCube.this.counts);
+                }
+
+                public long[] itemsByDay() {
+                        return rollUp(days.length, (day, hour, cell) -> day, TransactionCube.this.items);
+                }
+
+                // Indexed by enum ordinal
+                public long[] countsBy(TransactionTable.Category category) {
+                        return rollUp(category.cardinality(), byCategory(category), TransactionCube.this.counts);
+                }
+
+                public long[] itemsBy(TransactionTable.Category category) {
+                        return rollUp(category.cardinality(), byCategory(category), TransactionCube.this.items);
+                }
+
+                // Charts 1-3, 5-8 and 10 of StreamAPITutorialPartTwo, in that order
+                public List<StreamAPITutorialPartTwo.ChartData> charts() {
+                        long[] transactionsByHour = countsByHour();
+                        long[] itemsByHour = itemsByHour();
+                        long[] averageItemsByHour = new long[24];
+                        for (int hour = 0; hour < 24; hour++) {
+                                if (transactionsByHour[hour] > 0)
+                                        averageItemsByHour[hour] = Math.round(
+                                                        (double) itemsByHour[hour] / transactionsByHour[hour]);
+                        }
+
+                        long[] countsByDay = countsByDay();
+                        long[] itemsByDay = itemsByDay();
+                        long[] transactionsPerWeek = new long[5];
+                        long[] itemsPerWeek = new long[5];
+                        for (int day = 0; day < countsByDay.length; day++) {
+                                int week = StreamAPITutorialPartTwo.getWeekOfMonth(LocalDate.ofEpochDay(firstDay + day));
+                                transactionsPerWeek[week] += countsByDay[day];
+                                itemsPerWeek[week] += itemsByDay[day];
+                        }
+
+                        return List.of(
+                                        StreamAPITutorialPartTwo.ChartAccumulator.hourChart("Total Items Sold by Hourly Interval",
+                                                        transactionsByHour, itemsByHour),
+                                        StreamAPITutorialPartTwo.ChartAccumulator.hourChart("Total Transactions Count by Hour",
+                                                        transactionsByHour, transactionsByHour),
+                                        StreamAPITutorialPartTwo.ChartAccumulator.hourChart("Avg. Items per Transaction by Hour",
+                                                        transactionsByHour, averageItemsByHour),
+                                        StreamAPITutorialPartTwo.ChartAccumulator.weekChart("Total Transactions Per Week",
+                                                        transactionsPerWeek, transactionsPerWeek),
+                                        StreamAPITutorialPartTwo.ChartAccumulator.weekChart("Total Items Sold per Week",
+                                                        transactionsPerWeek, itemsPerWeek),
+                                        StreamAPITutorialPartTwo.ChartAccumulator.toChart("Transactions by Payment Method",
+                                                        PaymentMethod.values(),
+                                                        countsBy(TransactionTable.Category.PAYMENT_METHOD)),
+                                        StreamAPITutorialPartTwo.ChartAccumulator.toChart("Transaction Status Distribution",
+                                                        TransactionStatus.values(),
+                                                        countsBy(TransactionTable.Category.TRANSACTION_STATUS)),
+                                        StreamAPITutorialPartTwo.ChartAccumulator.toChart("Items Sold by Store Section",
+                                                        StoreSection.values(),
+                                                        itemsBy(TransactionTable.Category.STORE_SECTION)));
+                }
+
+                private Grouping byCategory(TransactionTable.Category category) {
+                        int stride = STRIDES[category.ordinal()];
+                        int cardinality = category.cardinality();
+                        return (day, hour, cell) -> cell / stride % cardinality;
+                }
+
+                // Sums the measure of every selected cell into its group
+                private long[] rollUp(int groups, Grouping grouping, long[] measure) {
+                        boolean[] cells = selectedCells();
+                        long[] totals = new long[groups];
+                        for (int day = 0; day < days.length; day++) {
+                                if (!days[day])
+                                        continue;
+                                for (int hour = 0; hour < 24; hour++) {
+                                        if (!hours[hour])
+                                                continue;
+                                        int base = (day * 24 + hour) * CATEGORY_CELLS;
+                                        for (int cell = 0; cell < CATEGORY_CELLS; cell++) {
+                                                if (cells[cell] && measure[base + cell] != 0)
+                                                        totals[grouping.group(day, hour, cell)] += measure[base + cell];
+                                        }
+                                }
+                        }
+                        return totals;
+                }
+
+                // Categorical cells whose every code is selected
+                private boolean[] selectedCells() {
+                        boolean[] cells = filled(CATEGORY_CELLS);
+                        for (int cell = 0; cell < CATEGORY_CELLS; cell++) {
+                                for (int c = 0; c < CATEGORIES.length; c++)
+                                        cells[cell] &= categories[c][cell / STRIDES[c] % CATEGORIES[c].cardinality()];
+                        }
+                        return cells;
+                }
+        }
+}
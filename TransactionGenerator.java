@@ -0,0 +1,79 @@
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic transactions for benchmarks and load tests. Record {@code i} depends
+ * only on {@code (seed, i)}, so a stream can be generated in parallel or resumed
+ * at any offset and still be reproducible. Dates fall in June 2025 and times in
+ * store opening hours, like the sample datasets.
+ */
+public final class TransactionGenerator {
+
+        private static final String[] ITEM_NAMES = {
+                        "milk", "bread", "egg", "butter", "yogurt", "chocolate", "rice", "cheese",
+                        "apple", "banana", "coffee", "tea", "pasta", "flour", "sugar", "salt"
+        };
+
+        private static final LocalDate FIRST_DAY = LocalDate.of(2025, 6, 1);
+        private static final PaymentMethod[] PAYMENT_METHODS = PaymentMethod.values();
+        private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+        private static final CustomerType[] CUSTOMER_TYPES = CustomerType.values();
+        private static final StoreSection[] STORE_SECTIONS = StoreSection.values();
+
+        private TransactionGenerator() {
+        }
+
+        public static Stream<Transaction> stream(long count, long seed) {
+                return LongStream.range(0, count).mapToObj(index -> transaction(index, seed));
+        }
+
+        public static List<Transaction> list(int count, long seed) {
+                List<Transaction> transactions = new ArrayList<>(count);
+                for (int i = 0; i < count; i++)
+                        transactions.add(transaction(i, seed));
+                return transactions;
+        }
+
+        public static TransactionTable table(int count, long seed) {
+                TransactionTable.Builder builder = TransactionTable.builder();
+                for (int i = 0; i < count; i++)
+                        builder.add(transaction(i, seed));
+                return builder.build();
+        }
+
+        public static Transaction transaction(long index, long seed) {
+                SplittableRandom random = new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+
+                int itemCount = 1 + random.nextInt(4);
+                List<Item> items = new ArrayList<>(itemCount);
+                for (int i = 0; i < itemCount; i++)
+                        items.add(new Item(ITEM_NAMES[random.nextInt(ITEM_NAMES.length)], 1 + random.nextInt(12)));
+
+                // Roughly three in four transactions complete, the rest are pending or returned
+                int statusRoll = random.nextInt(100);
+                TransactionStatus status = statusRoll < 75 ? TransactionStatus.COMPLETED
+                                : statusRoll < 88 ? TransactionStatus.PENDING : TransactionStatus.RETURNED;
+
+                return new Transaction(
+                                transactionId(index),
+                                FIRST_DAY.plusDays(random.nextInt(30)),
+                                LocalTime.of(8 + random.nextInt(14), random.nextInt(60)),
+                                List.copyOf(items),
+                                PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)],
+                                TRANSACTION_TYPES[random.nextInt(TRANSACTION_TYPES.length)],
+                                status,
+                                CUSTOMER_TYPES[random.nextInt(CUSTOMER_TYPES.length)],
+                                STORE_SECTIONS[random.nextInt(STORE_SECTIONS.length)]);
+        }
+
+        // TXN- followed by the 1-based index, zero-padded to at least eight digits
+        private static String transactionId(long index) {
+                String number = Long.toString(index + 1);
+                return "TXN-" + "0".repeat(Math.max(0, 8 - number.length())) + number;
+        }
+}
@@ -0,0 +1,169 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Chronological pages over a {@link TransactionTable}, sorted by date, time and
+ * transaction id.
+ *
+ * The sort order is built once. A page by number is then an array slice, and a
+ * page relative to a {@link Cursor} is a binary search plus the page itself:
+ * O(log n + pageSize) either way, however deep the page. The cursor names the
+ * row a page starts or ends at, not a position, so paging with cursors stays
+ * stable when rows are added to a rebuilt index. It also carries that page's
+ * number, so the neighbouring page is numbered one above or below it.
+ */
+public final class TransactionPageIndex {
+
+        // Sort key of a page boundary row and the number of its page; pass it back to after() or before()
+        public record Cursor(int epochDay, int secondOfDay, String transactionId, int pageNumber) {
+        }
+
+        /**
+         * One page of transactions. previous and next are the cursors for the
+         * neighbouring pages, or null at either end.
+         */
+        public record Page(List<Transaction> transactions, int pageNumber, int totalPages, Cursor previous,
+                        Cursor next) {
+        }
+
+        private final TransactionTable table;
+        private final int pageSize;
+        private final int totalPages;
+        // Row indices in (date, time, id) order
+        private final int[] sorted;
+
+        private TransactionPageIndex(TransactionTable table, int pageSize, int[] sorted) {
+                this.table = table;
+                this.pageSize = pageSize;
+                this.totalPages = (table.size() + pageSize - 1) / pageSize;
+                this.sorted = sorted;
+        }
+
+        public static TransactionPageIndex of(List<Transaction> transactions, int pageSize) {
+                return of(TransactionTable.of(transactions), pageSize);
+        }
+
+        public static TransactionPageIndex of(TransactionTable table, int pageSize) {
+                if (pageSize < 1)
+                        throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+                int size = table.size();
+                if (size == 0)
+                        return new TransactionPageIndex(table, pageSize, new int[0]);
+
+                // Sort (timestamp, row) pairs packed into longs, then order equal timestamps by id
+                long min = Long.MAX_VALUE;
+                for (int row = 0; row < size; row++)
+                        min = Math.min(min, timestamp(table, row));
+                long[] keys = new long[size];
+                for (int row = 0; row < size; row++) {
+                        long offset = timestamp(table, row) - min;
+                        if (offset >= 1L << 31)
+                                throw new IllegalArgumentException("Transactions span more than 68 years");
+                        keys[row] = offset << 32 | row;
+                }
+                Arrays.sort(keys);
+
+                int[] sorted = new int[size];
+                for (int i = 0; i < size; i++)
+                        sorted[i] = (int) keys[i];
+                Comparator<Integer> byId = Comparator.comparing(table::transactionId);
+                for (int start = 0, end; start < size; start = end) {
+                        end = start + 1;
+                        while (end < size && keys[end] >>> 32 == keys[start] >>> 32)
+                                end++;
+                        if (end - start > 1) {
+                                Integer[] run = new Integer[end - start];
+                                for (int i = 0; i < run.length; i++)
+                                        run[i] = sorted[start + i];
+                                Arrays.sort(run, byId);
+                                for (int i = 0; i < run.length; i++)
+                                        sorted[start + i] = run[i];
+                        }
+                }
+                return new TransactionPageIndex(table, pageSize, sorted);
+        }
+
+        public int size() {
+                return sorted.length;
+        }
+
+        public int pageSize() {
+                return pageSize;
+        }
+
+        public int totalPages() {
+                return totalPages;
+        }
+
+        // Page by 1-based number; pages past the end are empty but keep their number
+        public Page page(int pageNumber) {
+                if (pageNumber < 1)
+                        throw new IllegalArgumentException("Page numbers start at 1: " + pageNumber);
+                int start = (int) Math.min((long) (pageNumber - 1) * pageSize, sorted.length);
+                return slice(start, Math.min(start + pageSize, sorted.length), pageNumber);
+        }
+
+        public Page first() {
+                return page(1);
+        }
+
+        public Page last() {
+                return page(Math.max(1, totalPages));
+        }
+
+        // The page of rows that sort after the cursor, numbered one after the cursor's page
+        public Page after(Cursor cursor) {
+                int start = search(cursor, false);
+                return slice(start, Math.min(start + pageSize, sorted.length), cursor.pageNumber() + 1);
+        }
+
+        // The page of rows that sort strictly before the cursor, numbered one before the cursor's page
+        public Page before(Cursor cursor) {
+                int end = search(cursor, true);
+                return slice(Math.max(0, end - pageSize), end, Math.max(1, cursor.pageNumber() - 1));
+        }
+
+        // Rows at positions [start, end) as page pageNumber
+        private Page slice(int start, int end, int pageNumber) {
+                List<Transaction> transactions = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++)
+                        transactions.add(table.row(sorted[i]));
+                return new Page(transactions, pageNumber, totalPages,
+                                start > 0 && start < end ? cursor(sorted[start], pageNumber) : null,
+                                end < sorted.length ? cursor(sorted[end - 1], pageNumber) : null);
+        }
+
+        // First position whose row sorts after the cursor, or at-or-after it when inclusive
+        private int search(Cursor cursor, boolean inclusive) {
+                int low = 0;
+                int high = sorted.length;
+                while (low < high) {
+                        int mid = (low + high) >>> 1;
+                        int order = compare(sorted[mid], cursor);
+                        if (order < 0 || (order == 0 && !inclusive))
+                                low = mid + 1;
+                        else
+                                high = mid;
+                }
+                return low;
+        }
+
+        private int compare(int row, Cursor cursor) {
+                int order = Integer.compare(table.epochDay(row), cursor.epochDay());
+                if (order == 0)
+                        order = Integer.compare(table.secondOfDay(row), cursor.secondOfDay());
+                if (order == 0)
+                        order = table.transactionId(row).compareTo(cursor.transactionId());
+                return order;
+        }
+
+        private Cursor cursor(int row, int pageNumber) {
+                return new Cursor(table.epochDay(row), table.secondOfDay(row), table.transactionId(row), pageNumber);
+        }
+
+        private static long timestamp(TransactionTable table, int row) {
+                return (long) table.epochDay(row) * 86_400 + table.secondOfDay(row);
+        }
+}
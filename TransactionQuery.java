@@ -0,0 +1,558 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A report described as data: a filter, a group-by {@link Key} and one
+ * {@link Aggregate}, executed against a {@link TransactionTable} by a
+ * {@link Planner}.
+ *
+ * Queries are immutable; every restriction returns a new query, intersected
+ * with this one. Filters select categorical values, a date range, an hour range
+ * and an item that must be in the basket. Results list groups in key order and
+ * leave out groups without transactions, as the charts of
+ * {@link StreamAPITutorialPartTwo} do.
+ *
+ * The planner answers a query from a {@link TransactionCube} when one is
+ * available and the query needs nothing beyond per-transaction counts and item
+ * sums. All other queries submitted together share a single scan of the table:
+ * each distinct filter is tested once per row against the byte codes, and with a
+ * {@link BitmapIndex} the scan visits only rows in the union of the filters'
+ * bitmaps. {@link #chartQueries()} and {@link #summary(Planner)} express the
+ * ten charts and the summary this way.
+ */
+public final class TransactionQuery {
+
+        // Dimension a query groups by
+        public enum Key {
+                ALL, HOUR, WEEK, STORE_SECTION, PAYMENT_METHOD, TRANSACTION_STATUS,
+                // Groups each item line of a transaction by item name
+                ITEM
+        }
+
+        // Value computed per group
+        public enum Aggregate {
+                COUNT,
+                // Total item quantity
+                SUM_QUANTITY,
+                // Item quantity per transaction, rounded half up
+                AVERAGE_QUANTITY,
+                // Number of distinct item names
+                DISTINCT_ITEMS,
+                // Row of the earliest transaction by date and time, the lowest row on ties, or -1
+                EARLIEST
+        }
+
+        /**
+         * Groups of one query in key order. Keys are an hour, a week of the month, an
+         * enum ordinal, an item name id of the table, or 0 for {@link Key#ALL}, which
+         * always has its single group.
+         */
+        public record Result(String title, Key key, int[] keys, String[] labels, long[] values) {
+
+                // Value of the single group of an ungrouped query
+                public long value() {
+                        return values[0];
+                }
+
+                public int size() {
+                        return keys.length;
+                }
+
+                public StreamAPITutorialPartTwo.ChartData chart() {
+                        return new StreamAPITutorialPartTwo.ChartData(title, labels, values);
+                }
+        }
+
+        private static final TransactionTable.Category[] CATEGORIES = TransactionTable.Category.values();
+        // Allowed codes of every category, 8 bits per category by ordinal
+        private static final long ALL_CODES;
+
+        static {
+                long codes = 0;
+                for (TransactionTable.Category category : CATEGORIES) {
+                        if (category.cardinality() > 8)
+                                throw new ExceptionInInitializerError(category + " has more than 8 values");
+                        codes |= ((1L << category.cardinality()) - 1) << category.ordinal() * 8;
+                }
+                ALL_CODES = codes;
+        }
+
+        // Row filter; a record so queries with equal filters share one test per row
+        private record Filter(long codes, long fromDay, long toDay, int fromHour, int toHour, String item) {
+
+                static final Filter ALL = new Filter(ALL_CODES, Long.MIN_VALUE, Long.MAX_VALUE, 0, 24, null);
+
+                boolean restricts(TransactionTable.Category category) {
+                        return (codes & mask(category)) != (ALL_CODES & mask(category));
+                }
+
+                // Restrictions the cube cannot answer
+                boolean needsRows() {
+                        return item != null;
+                }
+
+                boolean test(TransactionTable table, int row, int itemId) {
+                        for (TransactionTable.Category category : CATEGORIES) {
+                                if ((codes >>> category.ordinal() * 8 + table.code(category, row) & 1) == 0)
+                                        return false;
+                        }
+                        int hour = table.hour(row);
+                        if (table.epochDay(row) < fromDay || table.epochDay(row) > toDay || hour < fromHour || hour >= toHour)
+                                return false;
+                        if (item == null)
+                                return true;
+                        for (int i = table.itemStart(row); i < table.itemEnd(row); i++) {
+                                if (table.itemNameId(i) == itemId)
+                                        return true;
+                        }
+                        return false;
+                }
+
+                // Rows passing the categorical part of the filter
+                BitmapIndex.Bitmap bitmap(BitmapIndex index) {
+                        BitmapIndex.Bitmap rows = index.all();
+                        for (TransactionTable.Category category : CATEGORIES) {
+                                if (restricts(category))
+                                        rows = rows.and(index.where(category, allowed(category)));
+                        }
+                        return rows;
+                }
+
+                Enum<?>[] allowed(TransactionTable.Category category) {
+                        List<Enum<?>> values = new ArrayList<>();
+                        for (int code = 0; code < category.cardinality(); code++) {
+                                if ((codes >>> category.ordinal() * 8 + code & 1) != 0)
+                                        values.add((Enum<?>) category.decode(code));
+                        }
+                        return values.toArray(new Enum<?>[0]);
+                }
+
+                private static long mask(TransactionTable.Category category) {
+                        return 0xFFL << category.ordinal() * 8;
+                }
+        }
+
+        private final String title;
+        private final Key key;
+        private final Aggregate aggregate;
+        private final Filter filter;
+
+        private TransactionQuery(String title, Key key, Aggregate aggregate, Filter filter) {
+                this.title = title;
+                this.key = key;
+                this.aggregate = aggregate;
+                this.filter = filter;
+        }
+
+        public static TransactionQuery count() {
+                return new TransactionQuery("", Key.ALL, Aggregate.COUNT, Filter.ALL);
+        }
+
+        public static TransactionQuery sumQuantity() {
+                return new TransactionQuery("", Key.ALL, Aggregate.SUM_QUANTITY, Filter.ALL);
+        }
+
+        public static TransactionQuery averageQuantity() {
+                return new TransactionQuery("", Key.ALL, Aggregate.AVERAGE_QUANTITY, Filter.ALL);
+        }
+
+        public static TransactionQuery distinctItems() {
+                return new TransactionQuery("", Key.ALL, Aggregate.DISTINCT_ITEMS, Filter.ALL);
+        }
+
+        public static TransactionQuery earliest() {
+                return new TransactionQuery("", Key.ALL, Aggregate.EARLIEST, Filter.ALL);
+        }
+
+        public static Planner planner(TransactionTable table) {
+                return new Planner(table, null, null);
+        }
+
+        // Title of the result and of its chart
+        public TransactionQuery named(String title) {
+                return new TransactionQuery(title, key, aggregate, filter);
+        }
+
+        public TransactionQuery groupBy(Key key) {
+                return new TransactionQuery(title, key, aggregate, filter);
+        }
+
+        // Transactions whose category has any of the given values
+        public TransactionQuery where(TransactionTable.Category category, Enum<?>... values) {
+                long selected = 0;
+                for (Enum<?> value : values) {
+                        if (category.decode(value.ordinal()) != value)
+                                throw new IllegalArgumentException(value + " is not a " + category + " value");
+                        selected |= 1L << category.ordinal() * 8 + value.ordinal();
+                }
+                long codes = filter.codes() & (selected | ~Filter.mask(category));
+                return with(new Filter(codes, filter.fromDay(), filter.toDay(), filter.fromHour(), filter.toHour(),
+                                filter.item()));
+        }
+
+        // Dates from one day to another, both inclusive
+        public TransactionQuery between(LocalDate from, LocalDate to) {
+                return with(new Filter(filter.codes(), Math.max(filter.fromDay(), from.toEpochDay()),
+                                Math.min(filter.toDay(), to.toEpochDay()), filter.fromHour(), filter.toHour(), filter.item()));
+        }
+
+        // Hours from fromHour (inclusive) to toHour (exclusive)
+        public TransactionQuery hours(int fromHour, int toHour) {
+                return with(new Filter(filter.codes(), filter.fromDay(), filter.toDay(),
+                                Math.max(filter.fromHour(), fromHour), Math.min(filter.toHour(), toHour), filter.item()));
+        }
+
+        // Transactions with the named item in their basket
+        public TransactionQuery containing(String item) {
+                if (filter.item() != null && !filter.item().equals(item))
+                        throw new IllegalArgumentException("Query already requires item " + filter.item());
+                return with(new Filter(filter.codes(), filter.fromDay(), filter.toDay(), filter.fromHour(), filter.toHour(),
+                                item));
+        }
+
+        private TransactionQuery with(Filter filter) {
+                return new TransactionQuery(title, key, aggregate, filter);
+        }
+
+        // Charts 1-10 of StreamAPITutorialPartTwo; chart 9 lists items in the table's first-seen order
+        public static List<TransactionQuery> chartQueries() {
+                return List.of(
+                                sumQuantity().groupBy(Key.HOUR).named("Total Items Sold by Hourly Interval"),
+                                count().groupBy(Key.HOUR).named("Total Transactions Count by Hour"),
+                                averageQuantity().groupBy(Key.HOUR).named("Avg. Items per Transaction by Hour"),
+                                distinctItems().groupBy(Key.HOUR).named("Distinct Items Sold by Hour"),
+                                count().groupBy(Key.WEEK).named("Total Transactions Per Week"),
+                                sumQuantity().groupBy(Key.WEEK).named("Total Items Sold per Week"),
+                                count().groupBy(Key.PAYMENT_METHOD).named("Transactions by Payment Method"),
+                                count().groupBy(Key.TRANSACTION_STATUS).named("Transaction Status Distribution"),
+                                sumQuantity().groupBy(Key.ITEM).named("Total Quantity Sold per Item"),
+                                sumQuantity().groupBy(Key.STORE_SECTION).named("Items Sold by Store Section"));
+        }
+
+        public static List<StreamAPITutorialPartTwo.ChartData> charts(Planner planner) {
+                return planner.run(chartQueries()).stream().map(Result::chart).toList();
+        }
+
+        // The eight answers of StreamAPITutorial.summarizeWithStreams, from six queries in one plan
+        public static StreamAPITutorial.TransactionSummary summary(Planner planner) {
+                List<Result> results = planner.run(List.of(
+                                count(),
+                                count().where(TransactionTable.Category.TRANSACTION_STATUS, TransactionStatus.COMPLETED),
+                                earliest(),
+                                count().groupBy(Key.STORE_SECTION),
+                                count().groupBy(Key.PAYMENT_METHOD),
+                                sumQuantity()));
+
+                long total = results.get(0).value();
+                long completed = results.get(1).value();
+                int firstRow = (int) results.get(2).value();
+                Result payments = results.get(4);
+                long[] paymentCounts = new long[PaymentMethod.values().length];
+                for (int i = 0; i < payments.size(); i++)
+                        paymentCounts[payments.keys()[i]] = payments.values()[i];
+
+                return new StreamAPITutorial.TransactionSummary(
+                                total,
+                                completed,
+                                firstRow < 0 ? "N/A" : planner.table.transactionId(firstRow),
+                                results.get(3).size(),
+                                paymentCounts[PaymentMethod.CREDIT_CARD.ordinal()] > 0,
+                                completed == total,
+                                StreamAPITutorial.mostUsedPaymentMethod(paymentCounts),
+                                results.get(5).value());
+        }
+
+        /**
+         * Executes queries against one table, optionally with a bitmap index and a
+         * cube built from that same table. Planners are immutable and can be shared.
+         */
+        public static final class Planner {
+                private final TransactionTable table;
+                private final BitmapIndex index;
+                private final TransactionCube cube;
+
+                private Planner(TransactionTable table, BitmapIndex index, TransactionCube cube) {
+                        this.table = table;
+                        this.index = index;
+                        this.cube = cube;
+                }
+
+                public Planner withIndex(BitmapIndex index) {
+                        return new Planner(table, index, cube);
+                }
+
+                public Planner withCube(TransactionCube cube) {
+                        return new Planner(table, index, cube);
+                }
+
+                public List<Result> run(TransactionQuery... queries) {
+                        return run(List.of(queries));
+                }
+
+                // Results in query order; cube lookups first, then one shared scan for the rest
+                public List<Result> run(List<TransactionQuery> queries) {
+                        Result[] results = new Result[queries.size()];
+                        List<Integer> scanned = new ArrayList<>();
+                        for (int q = 0; q < queries.size(); q++) {
+                                if (fromCube(queries.get(q)))
+                                        results[q] = cubeResult(queries.get(q));
+                                else
+                                        scanned.add(q);
+                        }
+                        if (!scanned.isEmpty()) {
+                                List<TransactionQuery> scanQueries = new ArrayList<>(scanned.size());
+                                for (int q : scanned)
+                                        scanQueries.add(queries.get(q));
+                                List<Result> scanResults = scan(scanQueries);
+                                for (int i = 0; i < scanned.size(); i++)
+                                        results[scanned.get(i)] = scanResults.get(i);
+                        }
+                        return Arrays.asList(results);
+                }
+
+                // One line per query saying how it would run
+                public List<String> explain(List<TransactionQuery> queries) {
+                        Map<Filter, Integer> filters = new LinkedHashMap<>();
+                        List<String> plan = new ArrayList<>(queries.size());
+                        for (TransactionQuery query : queries) {
+                                String name = query.title.isEmpty() ? query.aggregate + " by " + query.key : query.title;
+                                if (fromCube(query)) {
+                                        plan.add(name + ": cube");
+                                } else {
+                                        int id = filters.computeIfAbsent(query.filter, filter -> filters.size());
+                                        plan.add(name + ": shared scan, filter " + id
+                                                        + (index != null ? " via bitmap index" : " on codes"));
+                                }
+                        }
+                        return plan;
+                }
+
+                private boolean fromCube(TransactionQuery query) {
+                        return cube != null
+                                        && query.key != Key.ITEM
+                                        && (query.aggregate == Aggregate.COUNT || query.aggregate == Aggregate.SUM_QUANTITY
+                                                        || query.aggregate == Aggregate.AVERAGE_QUANTITY)
+                                        && !query.filter.needsRows();
+                }
+
+                private Result cubeResult(TransactionQuery query) {
+                        Filter filter = query.filter;
+                        TransactionCube.Slice slice = cube.all().hours(filter.fromHour(), filter.toHour());
+                        // Clamp to one day either side of the cube so the bounds stay valid dates
+                        long firstDay = cube.firstDate().toEpochDay();
+                        long from = Math.max(filter.fromDay(), firstDay - 1);
+                        long to = Math.min(filter.toDay(), firstDay + cube.days());
+                        slice = slice.between(LocalDate.ofEpochDay(from), LocalDate.ofEpochDay(to));
+                        for (TransactionTable.Category category : CATEGORIES) {
+                                if (filter.restricts(category))
+                                        slice = slice.where(category, filter.allowed(category));
+                        }
+
+                        long[] counts;
+                        long[] sums;
+                        switch (query.key) {
+                        case ALL -> {
+                                counts = new long[] { slice.count() };
+                                sums = new long[] { slice.items() };
+                        }
+                        case HOUR -> {
+                                counts = slice.countsByHour();
+                                sums = slice.itemsByHour();
+                        }
+                        case WEEK -> {
+                                long[] countsByDay = slice.countsByDay();
+                                long[] itemsByDay = slice.itemsByDay();
+                                counts = new long[5];
+                                sums = new long[5];
+                                for (int day = 0; day < countsByDay.length; day++) {
+                                        int week = StreamAPITutorialPartTwo.getWeekOfMonth(cube.firstDate().plusDays(day));
+                                        counts[week] += countsByDay[day];
+                                        sums[week] += itemsByDay[day];
+                                }
+                        }
+                        default -> {
+                                TransactionTable.Category category = category(query.key);
+                                counts = slice.countsBy(category);
+                                sums = slice.itemsBy(category);
+                        }
+                        }
+                        return result(query, counts, sums, null, null);
+                }
+
+                private List<Result> scan(List<TransactionQuery> queries) {
+                        // Distinct filters, each tested once per row
+                        Map<Filter, Integer> filterIds = new LinkedHashMap<>();
+                        int[] filterOf = new int[queries.size()];
+                        Accumulator[] accumulators = new Accumulator[queries.size()];
+                        for (int q = 0; q < queries.size(); q++) {
+                                filterOf[q] = filterIds.computeIfAbsent(queries.get(q).filter, filter -> filterIds.size());
+                                accumulators[q] = new Accumulator(queries.get(q).key, queries.get(q).aggregate, table);
+                        }
+                        Filter[] filters = filterIds.keySet().toArray(new Filter[0]);
+                        int[] itemIds = new int[filters.length];
+                        boolean[] everyRow = new boolean[filters.length];
+                        boolean[] matched = new boolean[filters.length];
+                        for (int f = 0; f < filters.length; f++) {
+                                itemIds[f] = filters[f].item() == null ? -1 : itemId(filters[f].item());
+                                // An unrestricted filter matches every row and is never tested
+                                everyRow[f] = matched[f] = filters[f].equals(Filter.ALL);
+                        }
+
+                        // With an index, visit only rows some filter's categories allow
+                        BitmapIndex.Bitmap rows = null;
+                        if (index != null) {
+                                rows = index.none();
+                                for (Filter filter : filters)
+                                        rows = rows.or(filter.bitmap(index));
+                        }
+
+                        int lastDay = Integer.MIN_VALUE;
+                        int week = 0;
+                        for (int row = rows == null ? 0 : rows.nextRow(0); row >= 0 && row < table.size();
+                                        row = rows == null ? row + 1 : rows.nextRow(row + 1)) {
+                                for (int f = 0; f < filters.length; f++) {
+                                        if (!everyRow[f])
+                                                matched[f] = filters[f].test(table, row, itemIds[f]);
+                                }
+                                // Rows come in table order, usually by date, so the week rarely changes
+                                if (table.epochDay(row) != lastDay) {
+                                        lastDay = table.epochDay(row);
+                                        week = StreamAPITutorialPartTwo.getWeekOfMonth(table.date(row));
+                                }
+                                for (int q = 0; q < accumulators.length; q++) {
+                                        if (matched[filterOf[q]])
+                                                accumulators[q].add(row, week);
+                                }
+                        }
+
+                        List<Result> results = new ArrayList<>(queries.size());
+                        for (int q = 0; q < queries.size(); q++) {
+                                Accumulator accumulator = accumulators[q];
+                                results.add(result(queries.get(q), accumulator.counts, accumulator.sums, accumulator.distinct,
+                                                accumulator.earliestRows));
+                        }
+                        return results;
+                }
+
+                // Name id of item in the table, or -1 when no row has it
+                private int itemId(String item) {
+                        for (int id = 0; id < table.itemNameCount(); id++) {
+                                if (table.itemName(id).equals(item))
+                                        return id;
+                        }
+                        return -1;
+                }
+
+                private Result result(TransactionQuery query, long[] counts, long[] sums, long[][] distinct,
+                                int[] earliestRows) {
+                        int size = 0;
+                        for (int group = 0; group < counts.length; group++) {
+                                if (counts[group] > 0 || query.key == Key.ALL)
+                                        size++;
+                        }
+                        int[] keys = new int[size];
+                        String[] labels = new String[size];
+                        long[] values = new long[size];
+                        for (int group = 0, i = 0; group < counts.length; group++) {
+                                if (counts[group] == 0 && query.key != Key.ALL)
+                                        continue;
+                                keys[i] = group;
+                                labels[i] = label(query.key, group);
+                                values[i++] = switch (query.aggregate) {
+                                case COUNT -> counts[group];
+                                case SUM_QUANTITY -> sums[group];
+                                case AVERAGE_QUANTITY -> counts[group] == 0 ? 0
+                                                : Math.round((double) sums[group] / counts[group]);
+                                case DISTINCT_ITEMS -> Arrays.stream(distinct[group]).map(Long::bitCount).sum();
+                                case EARLIEST -> earliestRows[group];
+                                };
+                        }
+                        return new Result(query.title, query.key, keys, labels, values);
+                }
+
+                private String label(Key key, int group) {
+                        return switch (key) {
+                        case ALL -> "All";
+                        case HOUR -> StreamAPITutorialPartTwo.hourLabel(group);
+                        case WEEK -> "Week " + group;
+                        case ITEM -> table.itemName(group);
+                        default -> category(key).decode(group).label();
+                        };
+                }
+        }
+
+        // Per-group state of one scanned query; only the arrays its aggregate needs are kept
+        private static final class Accumulator {
+                private final Key key;
+                private final TransactionTable table;
+                private final long[] counts;
+                private final long[] sums;
+                // One bitset of item name ids per group
+                private final long[][] distinct;
+                private final int[] earliestRows;
+
+                Accumulator(Key key, Aggregate aggregate, TransactionTable table) {
+                        this.key = key;
+                        this.table = table;
+                        int groups = switch (key) {
+                        case ALL -> 1;
+                        case HOUR -> 24;
+                        case WEEK -> 5;
+                        case ITEM -> table.itemNameCount();
+                        default -> category(key).cardinality();
+                        };
+                        this.counts = new long[groups];
+                        this.sums = new long[groups];
+                        this.distinct = aggregate == Aggregate.DISTINCT_ITEMS
+                                        ? new long[groups][(table.itemNameCount() + 63) >>> 6]
+                                        : null;
+                        this.earliestRows = aggregate == Aggregate.EARLIEST ? new int[groups] : null;
+                        if (earliestRows != null)
+                                Arrays.fill(earliestRows, -1);
+                }
+
+                void add(int row, int week) {
+                        if (key == Key.ITEM) {
+                                for (int i = table.itemStart(row); i < table.itemEnd(row); i++)
+                                        add(table.itemNameId(i), row, i, i + 1);
+                                return;
+                        }
+                        int group = switch (key) {
+                        case ALL -> 0;
+                        case HOUR -> table.hour(row);
+                        case WEEK -> week;
+                        default -> table.code(category(key), row);
+                        };
+                        add(group, row, table.itemStart(row), table.itemEnd(row));
+                }
+
+                // Adds the row's items at positions [from, to) to group
+                private void add(int group, int row, int from, int to) {
+                        counts[group]++;
+                        for (int i = from; i < to; i++) {
+                                sums[group] += table.itemQuantity(i);
+                                if (distinct != null)
+                                        distinct[group][table.itemNameId(i) >>> 6] |= 1L << table.itemNameId(i);
+                        }
+                        if (earliestRows != null && (earliestRows[group] < 0 || timestamp(row) < timestamp(earliestRows[group])))
+                                earliestRows[group] = row;
+                }
+
+                private long timestamp(int row) {
+                        return (long) table.epochDay(row) * 86_400 + table.secondOfDay(row);
+                }
+        }
+
+        private static TransactionTable.Category category(Key key) {
+                return switch (key) {
+                case STORE_SECTION -> TransactionTable.Category.STORE_SECTION;
+                case PAYMENT_METHOD -> TransactionTable.Category.PAYMENT_METHOD;
+                case TRANSACTION_STATUS -> TransactionTable.Category.TRANSACTION_STATUS;
+                default -> throw new IllegalArgumentException(key + " is not a categorical key");
+                };
+        }
+}
@@ -0,0 +1,402 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Lazy readers for exported transaction files. Records are parsed one line at a
+ * time as the stream is consumed, so a file of any size is processed in constant
+ * memory. Close the returned stream to release the file.
+ *
+ * CSV: one header line, then one transaction per line in record component order.
+ * Items are written as {@code name:quantity} pairs separated by {@code ;}, and a
+ * field may be wrapped in double quotes (with {@code ""} for a literal quote):
+ *
+ * <pre>
+ * transactionId,date,time,items,paymentMethod,transactionType,transactionStatus,customerType,storeSection
+ * TXN-0001,2025-06-01,10:15,milk:2;bread:1,Cash,In-Store,Completed,Regular,Mixed
+ * </pre>
+ *
+ * JSON lines: one object per line with the record component names as keys and
+ * items as an array of {@code {"name": ..., "quantity": ...}} objects. An empty
+ * item object {@code {}} is skipped.
+ */
+public final class TransactionReader {
+
+        // File formats, recognised by extension ignoring case
+        public enum Format {
+                CSV(".csv"),
+                JSON_LINES(".jsonl", ".ndjson");
+
+                private final String[] extensions;
+
+                Format(String... extensions) {
+                        this.extensions = extensions;
+                }
+
+                // Format of the file, or null when its extension is not one of the above
+                public static Format of(Path path) {
+                        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+                        for (Format format : values()) {
+                                for (String extension : format.extensions) {
+                                        if (name.endsWith(extension))
+                                                return format;
+                                }
+                        }
+                        return null;
+                }
+        }
+
+        private TransactionReader() {
+        }
+
+        // Picks the format from the file extension: .csv, or .jsonl / .ndjson
+        public static Stream<Transaction> open(Path path) throws IOException {
+                Format format = Format.of(path);
+                if (format == null)
+                        throw new IllegalArgumentException("Unsupported transaction file: " + path);
+                return format == Format.CSV ? csv(path) : jsonLines(path);
+        }
+
+        public static Stream<Transaction> csv(Path path) throws IOException {
+                return csv(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+        }
+
+        public static Stream<Transaction> jsonLines(Path path) throws IOException {
+                return jsonLines(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+        }
+
+        public static Stream<Transaction> csv(BufferedReader reader) {
+                return reader.lines()
+                                .skip(1) // Header
+                                .filter(line -> !isBlank(line))
+                                .map(TransactionReader::parseCsv)
+                                .onClose(() -> close(reader));
+        }
+
+        public static Stream<Transaction> jsonLines(BufferedReader reader) {
+                return reader.lines()
+                                .filter(line -> !isBlank(line))
+                                .map(TransactionReader::parseJson)
+                                .onClose(() -> close(reader));
+        }
+
+        // Lines every reader skips: empty or whitespace only, by Character.isWhitespace
+        static boolean isBlank(CharSequence line) {
+                for (int i = 0; i < line.length(); i++) {
+                        if (!Character.isWhitespace(line.charAt(i)))
+                                return false;
+                }
+                return true;
+        }
+
+        static Transaction parseCsv(String line) {
+                String[] fields = new String[9];
+                int field = 0;
+                int pos = 0;
+                int length = line.length();
+
+                while (field < fields.length) {
+                        if (pos < length && line.charAt(pos) == '"') {
+                                // Quoted field, "" is an escaped quote
+                                StringBuilder value = new StringBuilder();
+                                pos++;
+                                while (true) {
+                                        if (pos >= length)
+                                                throw malformed("unterminated quote", line);
+                                        char c = line.charAt(pos++);
+                                        if (c != '"') {
+                                                value.append(c);
+                                        } else if (pos < length && line.charAt(pos) == '"') {
+                                                value.append('"');
+                                                pos++;
+                                        } else {
+                                                break;
+                                        }
+                                }
+                                fields[field++] = value.toString();
+                        } else {
+                                int end = line.indexOf(',', pos);
+                                if (end < 0)
+                                        end = length;
+                                fields[field++] = line.substring(pos, end);
+                                pos = end;
+                        }
+
+                        if (field < fields.length) {
+                                if (pos >= length || line.charAt(pos) != ',')
+                                        throw malformed("expected " + fields.length + " fields", line);
+                                pos++;
+                        }
+                }
+                if (pos != length)
+                        throw malformed("expected " + fields.length + " fields", line);
+
+                return transaction(fields[0], parseDate(fields[1]), parseTime(fields[2]), parseCsvItems(fields[3], line),
+                                fields, 4, line);
+        }
+
+        private static List<Item> parseCsvItems(String text, String line) {
+                List<Item> items = new ArrayList<>();
+                int pos = 0;
+                while (pos < text.length()) {
+                        int end = text.indexOf(';', pos);
+                        if (end < 0)
+                                end = text.length();
+                        int colon = text.lastIndexOf(':', end - 1);
+                        if (colon < pos)
+                                throw malformed("item without quantity", line);
+                        items.add(new Item(text.substring(pos, colon), parseInt(text, colon + 1, end)));
+                        pos = end + 1;
+                }
+                return List.copyOf(items);
+        }
+
+        static Transaction parseJson(String line) {
+                JsonCursor json = new JsonCursor(line);
+                String transactionId = null;
+                LocalDate date = null;
+                LocalTime time = null;
+                List<Item> items = List.of();
+                String[] categorical = new String[5];
+
+                json.expect('{');
+                if (!json.consume('}')) {
+                        do {
+                                String key = json.string();
+                                json.expect(':');
+                                switch (key) {
+                                        case "transactionId" -> transactionId = json.string();
+                                        case "date" -> date = parseDate(json.string());
+                                        case "time" -> time = parseTime(json.string());
+                                        case "items" -> items = parseJsonItems(json);
+                                        case "paymentMethod" -> categorical[0] = json.string();
+                                        case "transactionType" -> categorical[1] = json.string();
+                                        case "transactionStatus" -> categorical[2] = json.string();
+                                        case "customerType" -> categorical[3] = json.string();
+                                        case "storeSection" -> categorical[4] = json.string();
+                                        default -> json.skipValue();
+                                }
+                        } while (json.consume(','));
+                        json.expect('}');
+                }
+                json.end();
+
+                if (transactionId == null || date == null || time == null)
+                        throw malformed("missing transactionId, date or time", line);
+                for (String value : categorical) {
+                        if (value == null)
+                                throw malformed("missing categorical field", line);
+                }
+                return transaction(transactionId, date, time, items, categorical, 0, line);
+        }
+
+        // Parses the five categorical labels from labels[from]; an unknown one is reported with its line
+        private static Transaction transaction(String transactionId, LocalDate date, LocalTime time, List<Item> items,
+                        String[] labels, int from, String line) {
+                try {
+                        return new Transaction(transactionId, date, time, items, labels[from], labels[from + 1],
+                                        labels[from + 2], labels[from + 3], labels[from + 4]);
+                } catch (IllegalArgumentException e) {
+                        throw malformed(e.getMessage(), line);
+                }
+        }
+
+        private static List<Item> parseJsonItems(JsonCursor json) {
+                List<Item> items = new ArrayList<>();
+                json.expect('[');
+                if (json.consume(']'))
+                        return List.of();
+                do {
+                        String name = null;
+                        int quantity = 0;
+                        json.expect('{');
+                        // An empty object names no item and adds nothing
+                        if (json.consume('}'))
+                                continue;
+                        do {
+                                String key = json.string();
+                                json.expect(':');
+                                switch (key) {
+                                        case "name" -> name = json.string();
+                                        case "quantity" -> quantity = json.integer();
+                                        default -> json.skipValue();
+                                }
+                        } while (json.consume(','));
+                        json.expect('}');
+                        if (name == null)
+                                throw json.error("item without name");
+                        items.add(new Item(name, quantity));
+                } while (json.consume(','));
+                json.expect(']');
+                return List.copyOf(items);
+        }
+
+        // yyyy-MM-dd
+        static LocalDate parseDate(String text) {
+                if (text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-')
+                        throw new IllegalArgumentException("Invalid date: " + text);
+                return LocalDate.of(parseInt(text, 0, 4), parseInt(text, 5, 7), parseInt(text, 8, 10));
+        }
+
+        // HH:mm or HH:mm:ss
+        static LocalTime parseTime(String text) {
+                if ((text.length() != 5 && text.length() != 8) || text.charAt(2) != ':'
+                                || (text.length() == 8 && text.charAt(5) != ':'))
+                        throw new IllegalArgumentException("Invalid time: " + text);
+                int second = text.length() == 8 ? parseInt(text, 6, 8) : 0;
+                return LocalTime.of(parseInt(text, 0, 2), parseInt(text, 3, 5), second);
+        }
+
+        // Non-negative decimal integer in text[start, end)
+        static int parseInt(CharSequence text, int start, int end) {
+                if (start >= end)
+                        throw new IllegalArgumentException("Missing number in: " + text);
+                int value = 0;
+                for (int i = start; i < end; i++) {
+                        int digit = text.charAt(i) - '0';
+                        if (digit < 0 || digit > 9)
+                                throw new IllegalArgumentException("Invalid number in: " + text);
+                        value = Math.addExact(Math.multiplyExact(value, 10), digit);
+                }
+                return value;
+        }
+
+        private static IllegalArgumentException malformed(String reason, String line) {
+                return new IllegalArgumentException("Malformed transaction (" + reason + "): " + line);
+        }
+
+        private static void close(BufferedReader reader) {
+                try {
+                        reader.close();
+                } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                }
+        }
+
+        // Minimal JSON scanner over one line; only what a transaction object needs
+        private static final class JsonCursor {
+                private final String text;
+                private int pos;
+
+                JsonCursor(String text) {
+                        this.text = text;
+                }
+
+                void expect(char c) {
+                        if (!consume(c))
+                                throw error("expected '" + c + "'");
+                }
+
+                boolean consume(char c) {
+                        skipWhitespace();
+                        if (pos < text.length() && text.charAt(pos) == c) {
+                                pos++;
+                                return true;
+                        }
+                        return false;
+                }
+
+                void end() {
+                        skipWhitespace();
+                        if (pos != text.length())
+                                throw error("trailing characters");
+                }
+
+                String string() {
+                        expect('"');
+                        int start = pos;
+                        // Fast path: no escapes
+                        while (pos < text.length()) {
+                                char c = text.charAt(pos);
+                                if (c == '"')
+                                        return text.substring(start, pos++);
+                                if (c == '\\')
+                                        break;
+                                pos++;
+                        }
+
+                        StringBuilder value = new StringBuilder().append(text, start, pos);
+                        while (pos < text.length()) {
+                                char c = text.charAt(pos++);
+                                if (c == '"')
+                                        return value.toString();
+                                if (c != '\\') {
+                                        value.append(c);
+                                        continue;
+                                }
+                                if (pos >= text.length())
+                                        break;
+                                char escaped = text.charAt(pos++);
+                                switch (escaped) {
+                                        case 'b' -> value.append('\b');
+                                        case 'f' -> value.append('\f');
+                                        case 'n' -> value.append('\n');
+                                        case 'r' -> value.append('\r');
+                                        case 't' -> value.append('\t');
+                                        case 'u' -> {
+                                                if (pos + 4 > text.length())
+                                                        throw error("truncated unicode escape");
+                                                value.append((char) Integer.parseInt(text, pos, pos + 4, 16));
+                                                pos += 4;
+                                        }
+                                        default -> value.append(escaped);
+                                }
+                        }
+                        throw error("unterminated string");
+                }
+
+                int integer() {
+                        skipWhitespace();
+                        int start = pos;
+                        while (pos < text.length() && Character.isDigit(text.charAt(pos)))
+                                pos++;
+                        return parseInt(text, start, pos);
+                }
+
+                // Skips a value of a key the reader does not use
+                void skipValue() {
+                        skipWhitespace();
+                        if (pos >= text.length())
+                                throw error("missing value");
+                        char c = text.charAt(pos);
+                        if (c == '"') {
+                                string();
+                        } else if (c == '{' || c == '[') {
+                                char close = c == '{' ? '}' : ']';
+                                pos++;
+                                if (consume(close))
+                                        return;
+                                do {
+                                        if (c == '{') {
+                                                string();
+                                                expect(':');
+                                        }
+                                        skipValue();
+                                } while (consume(','));
+                                expect(close);
+                        } else {
+                                // Number, true, false or null
+                                while (pos < text.length() && ",}] \t".indexOf(text.charAt(pos)) < 0)
+                                        pos++;
+                        }
+                }
+
+                IllegalArgumentException error(String reason) {
+                        return malformed(reason + " at column " + (pos + 1), text);
+                }
+
+                private void skipWhitespace() {
+                        while (pos < text.length() && Character.isWhitespace(text.charAt(pos)))
+                                pos++;
+                }
+        }
+}
@@ -0,0 +1,366 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary on-disk snapshot of a {@link TransactionTable}, for reloading a dataset
+ * without re-parsing text exports.
+ *
+ * Layout (little-endian), every array section prefixed by its length in bytes
+ * as a long:
+ *
+ * <pre>
+ * int magic "TXNS", int version, int rows, int items
+ * 5 x string dictionary   categorical labels, one per Category in ordinal order
+ * string dictionary       item names
+ * int[rows]               epoch day
+ * int[rows]               second of day
+ * 5 x byte[rows]          categorical codes into the dictionaries above
+ * int[rows + 1]           item offsets (CSR)
+ * int[items]              item name ids
+ * int[items]              item quantities
+ * int[rows]               transaction id lengths in bytes
+ * byte[]                  transaction ids, UTF-8, concatenated
+ * </pre>
+ *
+ * A string dictionary is a count followed by length-prefixed UTF-8 strings.
+ * Sections may be larger than 2 GiB; the reader maps the file one region of at
+ * most 1 GiB at a time.
+ * Categorical labels are matched back to enum constants on load, so reordering
+ * an enum does not invalidate old snapshots. A row whose label the enum does not
+ * list fails the load. So does a code, item offset, item name id or id length
+ * that would index outside its section, with an IOException naming the record.
+ */
+public final class TransactionSnapshot {
+
+        private static final int MAGIC = 0x534E5854; // "TXNS" in little-endian
+        // Version 1 had int section lengths and id offsets, which overflowed past 2 GiB
+        private static final int VERSION = 2;
+        // Largest region mapped at once; MappedByteBuffer is int-indexed
+        private static final int REGION_SIZE = 1 << 30;
+        private static final int BUFFER_SIZE = 1 << 20;
+
+        private static final TransactionTable.Category[] CATEGORIES = TransactionTable.Category.values();
+
+        private TransactionSnapshot() {
+        }
+
+        public static void write(TransactionTable table, Path path) throws IOException {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                                StandardOpenOption.TRUNCATE_EXISTING)) {
+                        Output out = new Output(channel);
+                        int rows = table.size();
+                        int items = rows == 0 ? 0 : table.itemEnd(rows - 1);
+
+                        out.putInt(MAGIC);
+                        out.putInt(VERSION);
+                        out.putInt(rows);
+                        out.putInt(items);
+
+                        for (TransactionTable.Category category : CATEGORIES) {
+                                String[] labels = new String[category.cardinality()];
+                                for (int code = 0; code < labels.length; code++)
+                                        labels[code] = category.decode(code).label();
+                                out.putDictionary(labels);
+                        }
+                        String[] itemNames = new String[table.itemNameCount()];
+                        for (int id = 0; id < itemNames.length; id++)
+                                itemNames[id] = table.itemName(id);
+                        out.putDictionary(itemNames);
+
+                        out.putLong((long) rows * Integer.BYTES);
+                        for (int row = 0; row < rows; row++)
+                                out.putInt(table.epochDay(row));
+                        out.putLong((long) rows * Integer.BYTES);
+                        for (int row = 0; row < rows; row++)
+                                out.putInt(table.secondOfDay(row));
+                        for (TransactionTable.Category category : CATEGORIES) {
+                                out.putLong(rows);
+                                for (int row = 0; row < rows; row++)
+                                        out.putByte((byte) table.code(category, row));
+                        }
+
+                        out.putLong((rows + 1L) * Integer.BYTES);
+                        out.putInt(0);
+                        for (int row = 0; row < rows; row++)
+                                out.putInt(table.itemEnd(row));
+                        out.putLong((long) items * Integer.BYTES);
+                        for (int position = 0; position < items; position++)
+                                out.putInt(table.itemNameId(position));
+                        out.putLong((long) items * Integer.BYTES);
+                        for (int position = 0; position < items; position++)
+                                out.putInt(table.itemQuantity(position));
+
+                        // Ids go last: lengths first, then the concatenated bytes
+                        byte[][] ids = new byte[rows][];
+                        long idBytes = 0;
+                        for (int row = 0; row < rows; row++) {
+                                ids[row] = table.transactionId(row).getBytes(StandardCharsets.UTF_8);
+                                idBytes += ids[row].length;
+                        }
+                        out.putLong((long) rows * Integer.BYTES);
+                        for (byte[] id : ids)
+                                out.putInt(id.length);
+                        out.putLong(idBytes);
+                        for (byte[] id : ids)
+                                out.putBytes(id);
+
+                        out.flush();
+                }
+        }
+
+        public static TransactionTable read(Path path) throws IOException {
+                return read(path, REGION_SIZE);
+        }
+
+        static TransactionTable read(Path path, int regionSize) throws IOException {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                        return read(new Input(channel, regionSize), path);
+                }
+        }
+
+        private static TransactionTable read(Input in, Path path) throws IOException {
+                if (in.size() < 4 * Integer.BYTES || in.getInt() != MAGIC)
+                        throw new IOException("Not a transaction snapshot: " + path);
+                int version = in.getInt();
+                if (version != VERSION)
+                        throw new IOException("Unsupported snapshot version " + version + ": " + path);
+                int rows = in.getInt();
+                int items = in.getInt();
+
+                // File code -> enum ordinal, per category
+                String[][] labels = new String[CATEGORIES.length][];
+                int[][] remaps = new int[CATEGORIES.length][];
+                for (int c = 0; c < CATEGORIES.length; c++) {
+                        labels[c] = getDictionary(in);
+                        remaps[c] = remap(CATEGORIES[c], labels[c]);
+                }
+                String[] itemNames = getDictionary(in);
+
+                int[] epochDays = getInts(in, rows);
+                int[] secondsOfDay = getInts(in, rows);
+                byte[][] codes = new byte[CATEGORIES.length][];
+                for (int c = 0; c < CATEGORIES.length; c++) {
+                        codes[c] = getBytes(in, rows);
+                        int[] remap = remaps[c];
+                        for (int row = 0; row < rows; row++) {
+                                int code = codes[c][row] & 0xFF;
+                                if (code >= labels[c].length)
+                                        throw new IOException("Corrupt snapshot: row " + row + " has " + CATEGORIES[c]
+                                                        + " code " + code + " outside [0, " + labels[c].length + "): " + path);
+                                if (remap == null)
+                                        continue;
+                                if (remap[code] < 0)
+                                        throw new IOException("Unknown " + CATEGORIES[c] + " label in row " + row
+                                                        + ": " + labels[c][code] + ": " + path);
+                                codes[c][row] = (byte) remap[code];
+                        }
+                }
+                int[] itemOffsets = getInts(in, rows + 1);
+                if (itemOffsets[0] != 0 || itemOffsets[rows] != items)
+                        throw new IOException("Corrupt snapshot: item offsets do not span [0, " + items + "): " + path);
+                for (int row = 0; row < rows; row++) {
+                        if (itemOffsets[row] > itemOffsets[row + 1])
+                                throw new IOException("Corrupt snapshot: row " + row + " has item offsets "
+                                                + itemOffsets[row] + " > " + itemOffsets[row + 1] + ": " + path);
+                }
+                int[] itemNameIds = getInts(in, items);
+                for (int position = 0; position < items; position++) {
+                        int id = itemNameIds[position];
+                        if (id < 0 || id >= itemNames.length)
+                                throw new IOException("Corrupt snapshot: item " + position + " has name id " + id
+                                                + " outside [0, " + itemNames.length + "): " + path);
+                }
+                int[] itemQuantities = getInts(in, items);
+
+                int[] idLengths = getInts(in, rows);
+                long idBytes = 0;
+                for (int row = 0; row < rows; row++) {
+                        if (idLengths[row] < 0)
+                                throw new IOException("Corrupt snapshot: row " + row + " has id length " + idLengths[row]
+                                                + ": " + path);
+                        idBytes += idLengths[row];
+                }
+                checkLength(in.getLong(), idBytes);
+                String[] transactionIds = new String[rows];
+                for (int row = 0; row < rows; row++)
+                        transactionIds[row] = in.getString(idLengths[row]);
+
+                return new TransactionTable(transactionIds, epochDays, secondsOfDay, codes, itemOffsets, itemNameIds,
+                                itemQuantities, itemNames);
+        }
+
+        // Null when the file codes already equal the enum ordinals; -1 for labels the enum does not list
+        private static int[] remap(TransactionTable.Category category, String[] labels) {
+                int[] remap = new int[labels.length];
+                boolean identity = true;
+                for (int code = 0; code < labels.length; code++) {
+                        int ordinal = -1;
+                        for (int i = 0; i < category.cardinality(); i++) {
+                                if (category.decode(i).label().equalsIgnoreCase(labels[code]))
+                                        ordinal = i;
+                        }
+                        remap[code] = ordinal;
+                        identity &= ordinal == code;
+                }
+                return identity ? null : remap;
+        }
+
+        private static String[] getDictionary(Input in) throws IOException {
+                String[] values = new String[in.getInt()];
+                for (int i = 0; i < values.length; i++)
+                        values[i] = in.getString(in.getInt());
+                return values;
+        }
+
+        private static int[] getInts(Input in, int count) throws IOException {
+                checkLength(in.getLong(), (long) count * Integer.BYTES);
+                int[] values = new int[count];
+                in.get(values);
+                return values;
+        }
+
+        private static byte[] getBytes(Input in, int count) throws IOException {
+                checkLength(in.getLong(), count);
+                byte[] values = new byte[count];
+                in.get(values);
+                return values;
+        }
+
+        private static void checkLength(long actual, long expected) throws IOException {
+                if (actual != expected)
+                        throw new IOException("Corrupt snapshot: section of " + actual + " bytes, expected " + expected);
+        }
+
+        // Sequential little-endian reader that maps the file one region at a time
+        private static final class Input {
+                private final FileChannel channel;
+                private final long size;
+                private final int regionSize;
+                private long regionStart;
+                private ByteBuffer region = ByteBuffer.allocate(0);
+                private byte[] scratch = new byte[64];
+
+                Input(FileChannel channel, int regionSize) throws IOException {
+                        this.channel = channel;
+                        this.size = channel.size();
+                        this.regionSize = regionSize;
+                }
+
+                long size() {
+                        return size;
+                }
+
+                int getInt() throws IOException {
+                        require(Integer.BYTES);
+                        return region.getInt();
+                }
+
+                long getLong() throws IOException {
+                        require(Long.BYTES);
+                        return region.getLong();
+                }
+
+                void get(byte[] values) throws IOException {
+                        get(values, values.length);
+                }
+
+                // Fills the first length bytes of values
+                void get(byte[] values, int length) throws IOException {
+                        for (int done = 0; done < length;) {
+                                require(1);
+                                int count = Math.min(region.remaining(), length - done);
+                                region.get(values, done, count);
+                                done += count;
+                        }
+                }
+
+                void get(int[] values) throws IOException {
+                        for (int done = 0; done < values.length;) {
+                                require(Integer.BYTES);
+                                int count = Math.min(region.remaining() / Integer.BYTES, values.length - done);
+                                region.asIntBuffer().get(values, done, count);
+                                region.position(region.position() + count * Integer.BYTES);
+                                done += count;
+                        }
+                }
+
+                // UTF-8 string of length bytes, staged in a reused buffer
+                String getString(int length) throws IOException {
+                        if (length > scratch.length)
+                                scratch = new byte[Math.max(length, scratch.length * 2)];
+                        get(scratch, length);
+                        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+                }
+
+                // Maps a new region at the current position when fewer than count bytes are left
+                private void require(int count) throws IOException {
+                        if (region.remaining() >= count)
+                                return;
+                        long position = regionStart + region.position();
+                        if (size - position < count)
+                                throw new IOException("Corrupt snapshot: truncated at byte " + position);
+                        regionStart = position;
+                        region = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(regionSize, size - position))
+                                        .order(ByteOrder.LITTLE_ENDIAN);
+                }
+        }
+
+        // Buffered little-endian channel writer
+        private static final class Output {
+                private final FileChannel channel;
+                private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+                Output(FileChannel channel) {
+                        this.channel = channel;
+                }
+
+                void putInt(int value) throws IOException {
+                        if (buffer.remaining() < Integer.BYTES)
+                                flush();
+                        buffer.putInt(value);
+                }
+
+                void putLong(long value) throws IOException {
+                        if (buffer.remaining() < Long.BYTES)
+                                flush();
+                        buffer.putLong(value);
+                }
+
+                void putByte(byte value) throws IOException {
+                        if (!buffer.hasRemaining())
+                                flush();
+                        buffer.put(value);
+                }
+
+                void putBytes(byte[] bytes) throws IOException {
+                        if (buffer.remaining() < bytes.length)
+                                flush();
+                        if (bytes.length > buffer.capacity()) {
+                                channel.write(ByteBuffer.wrap(bytes));
+                                return;
+                        }
+                        buffer.put(bytes);
+                }
+
+                void putDictionary(String[] values) throws IOException {
+                        putInt(values.length);
+                        for (String value : values) {
+                                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                                putInt(bytes.length);
+                                putBytes(bytes);
+                        }
+                }
+
+                void flush() throws IOException {
+                        buffer.flip();
+                        while (buffer.hasRemaining())
+                                channel.write(buffer);
+                        buffer.clear();
+                }
+        }
+}
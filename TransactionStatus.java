@@ -0,0 +1,27 @@
+public enum TransactionStatus implements Categorical {
+        RETURNED("Returned"),
+        COMPLETED("Completed"),
+        PENDING("Pending");
+
+        private static final TransactionStatus[] VALUES = values();
+
+        private final String label;
+
+        TransactionStatus(String label) {
+                this.label = label;
+        }
+
+        public static TransactionStatus parse(String text) {
+                return Categorical.parse(VALUES, text);
+        }
+
+        @Override
+        public String label() {
+                return label;
+        }
+
+        @Override
+        public String toString() {
+                return label;
+        }
+}
@@ -0,0 +1,320 @@
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Read-only, column-oriented copy of a list of transactions.
+ *
+ * Dates are stored as epoch days and times as seconds of day. Each categorical
+ * field is stored as the byte ordinal of its enum constant. Items use a CSR layout: the items
+ * of row {@code r} sit at positions {@code itemOffsets[r]} (inclusive) to
+ * {@code itemOffsets[r + 1]} (exclusive) of the flat name-id and quantity
+ * columns, and names are interned to ids by an {@link ItemCatalog}.
+ */
+public final class TransactionTable {
+
+        // Ordinal-encoded categorical columns
+        public enum Category {
+                PAYMENT_METHOD(Transaction::paymentMethod, PaymentMethod.values()),
+                TRANSACTION_TYPE(Transaction::transactionType, TransactionType.values()),
+                TRANSACTION_STATUS(Transaction::transactionStatus, TransactionStatus.values()),
+                CUSTOMER_TYPE(Transaction::customerType, CustomerType.values()),
+                STORE_SECTION(Transaction::storeSection, StoreSection.values());
+
+                private final Function<Transaction, ? extends Enum<?>> accessor;
+                private final Categorical[] constants;
+
+                Category(Function<Transaction, ? extends Enum<?>> accessor, Categorical[] constants) {
+                        this.accessor = accessor;
+                        this.constants = constants;
+                }
+
+                public int code(Transaction tx) {
+                        return accessor.apply(tx).ordinal();
+                }
+
+                public Categorical decode(int code) {
+                        return constants[code];
+                }
+
+                // Number of distinct codes
+                public int cardinality() {
+                        return constants.length;
+                }
+        }
+
+        private static final Category[] CATEGORIES = Category.values();
+
+        private final int size;
+        private final String[] transactionIds;
+        private final int[] epochDays;
+        private final int[] secondsOfDay;
+        private final byte[][] codes;
+        private final int[] itemOffsets;
+        private final int[] itemNameIds;
+        private final int[] itemQuantities;
+        private final String[] itemNames;
+
+        // Takes ownership of the arrays; codes holds one column per Category, by ordinal
+        TransactionTable(String[] transactionIds, int[] epochDays, int[] secondsOfDay, byte[][] codes,
+                        int[] itemOffsets, int[] itemNameIds, int[] itemQuantities, String[] itemNames) {
+                this.size = transactionIds.length;
+                this.transactionIds = transactionIds;
+                this.epochDays = epochDays;
+                this.secondsOfDay = secondsOfDay;
+                this.codes = codes;
+                this.itemOffsets = itemOffsets;
+                this.itemNameIds = itemNameIds;
+                this.itemQuantities = itemQuantities;
+                this.itemNames = itemNames;
+        }
+
+        public static TransactionTable of(List<Transaction> transactions) {
+                Builder builder = builder();
+                transactions.forEach(builder::add);
+                return builder.build();
+        }
+
+        public static Builder builder() {
+                return new Builder(new ItemCatalog());
+        }
+
+        // Interns item names through catalog, so tables built from it share item ids
+        public static Builder builder(ItemCatalog catalog) {
+                return new Builder(catalog);
+        }
+
+        public int size() {
+                return size;
+        }
+
+        // Row indices, the entry point for primitive queries
+        public IntStream rows() {
+                return IntStream.range(0, size);
+        }
+
+        // Rows materialised back into records, for code written against Transaction
+        public Stream<Transaction> stream() {
+                return rows().mapToObj(this::row);
+        }
+
+        public Transaction row(int row) {
+                List<Item> items = new ArrayList<>(itemOffsets[row + 1] - itemOffsets[row]);
+                for (int i = itemOffsets[row]; i < itemOffsets[row + 1]; i++)
+                        items.add(new Item(itemNames[itemNameIds[i]], itemQuantities[i]));
+
+                return new Transaction(
+                                transactionIds[row],
+                                date(row),
+                                time(row),
+                                List.copyOf(items),
+                                (PaymentMethod) value(Category.PAYMENT_METHOD, row),
+                                (TransactionType) value(Category.TRANSACTION_TYPE, row),
+                                (TransactionStatus) value(Category.TRANSACTION_STATUS, row),
+                                (CustomerType) value(Category.CUSTOMER_TYPE, row),
+                                (StoreSection) value(Category.STORE_SECTION, row));
+        }
+
+        public String transactionId(int row) {
+                return transactionIds[row];
+        }
+
+        public int epochDay(int row) {
+                return epochDays[row];
+        }
+
+        public int secondOfDay(int row) {
+                return secondsOfDay[row];
+        }
+
+        public int hour(int row) {
+                return secondsOfDay[row] / 3600;
+        }
+
+        public LocalDate date(int row) {
+                return LocalDate.ofEpochDay(epochDays[row]);
+        }
+
+        public LocalTime time(int row) {
+                return LocalTime.ofSecondOfDay(secondsOfDay[row]);
+        }
+
+        // Enum ordinal of the row's value, in [0, category.cardinality())
+        public int code(Category category, int row) {
+                return codes[category.ordinal()][row];
+        }
+
+        public Categorical value(Category category, int row) {
+                return category.decode(code(category, row));
+        }
+
+        // The code column itself, not a copy, for kernels that scan it whole; do not modify
+        byte[] column(Category category) {
+                return codes[category.ordinal()];
+        }
+
+        // Row predicate comparing byte codes; no strings are touched per row
+        public IntPredicate matching(Category category, Enum<?> value) {
+                if (category.decode(value.ordinal()) != value)
+                        throw new IllegalArgumentException(value + " is not a " + category + " value");
+
+                byte[] column = codes[category.ordinal()];
+                byte code = (byte) value.ordinal();
+                return row -> column[row] == code;
+        }
+
+        // Position range of a row's items in the flat item columns
+        public int itemStart(int row) {
+                return itemOffsets[row];
+        }
+
+        public int itemEnd(int row) {
+                return itemOffsets[row + 1];
+        }
+
+        public int itemNameId(int position) {
+                return itemNameIds[position];
+        }
+
+        public int itemQuantity(int position) {
+                return itemQuantities[position];
+        }
+
+        public String itemName(int nameId) {
+                return itemNames[nameId];
+        }
+
+        public int itemNameCount() {
+                return itemNames.length;
+        }
+
+        // Quantities of one row's items
+        public IntStream quantities(int row) {
+                return Arrays.stream(itemQuantities, itemOffsets[row], itemOffsets[row + 1]);
+        }
+
+        // Quantities of every item of every row
+        public IntStream quantities() {
+                return Arrays.stream(itemQuantities);
+        }
+
+        // Total item quantity of one row
+        public int itemCount(int row) {
+                int total = 0;
+                for (int i = itemOffsets[row]; i < itemOffsets[row + 1]; i++)
+                        total += itemQuantities[i];
+                return total;
+        }
+
+        // Total quantity per item name id over the given rows
+        public long[] quantityPerItem(IntStream rows) {
+                int names = itemNames.length;
+                return rows.collect(
+                                () -> new long[names],
+                                (quantities, row) -> {
+                                        for (int i = itemOffsets[row]; i < itemOffsets[row + 1]; i++)
+                                                quantities[itemNameIds[i]] += itemQuantities[i];
+                                },
+                                (left, right) -> {
+                                        for (int id = 0; id < names; id++)
+                                                left[id] += right[id];
+                                });
+        }
+
+        // Number of distinct item names per hour over the given rows, from one name bitset per hour
+        public int[] distinctItemsByHour(IntStream rows) {
+                int words = (itemNames.length + 63) >>> 6;
+                long[][] seen = rows.collect(
+                                () -> new long[24][words],
+                                (bits, row) -> {
+                                        long[] hour = bits[secondsOfDay[row] / 3600];
+                                        for (int i = itemOffsets[row]; i < itemOffsets[row + 1]; i++)
+                                                hour[itemNameIds[i] >>> 6] |= 1L << itemNameIds[i];
+                                },
+                                (left, right) -> {
+                                        for (int hour = 0; hour < 24; hour++) {
+                                                for (int w = 0; w < words; w++)
+                                                        left[hour][w] |= right[hour][w];
+                                        }
+                                });
+
+                int[] distinct = new int[24];
+                for (int hour = 0; hour < 24; hour++) {
+                        for (long word : seen[hour])
+                                distinct[hour] += Long.bitCount(word);
+                }
+                return distinct;
+        }
+
+        public static final class Builder {
+                private int size;
+                private String[] transactionIds = new String[16];
+                private int[] epochDays = new int[16];
+                private int[] secondsOfDay = new int[16];
+                private final byte[][] codes = new byte[CATEGORIES.length][16];
+                private int[] itemOffsets = new int[17];
+                private int itemCount;
+                private int[] itemNameIds = new int[32];
+                private int[] itemQuantities = new int[32];
+                private final ItemCatalog catalog;
+
+                private Builder(ItemCatalog catalog) {
+                        this.catalog = catalog;
+                }
+
+                public Builder add(Transaction tx) {
+                        if (size == transactionIds.length)
+                                grow();
+
+                        transactionIds[size] = tx.transactionId();
+                        epochDays[size] = Math.toIntExact(tx.date().toEpochDay());
+                        secondsOfDay[size] = tx.time().toSecondOfDay();
+                        for (int c = 0; c < CATEGORIES.length; c++)
+                                codes[c][size] = (byte) CATEGORIES[c].code(tx);
+
+                        for (Item item : tx.items()) {
+                                if (itemCount == itemQuantities.length) {
+                                        itemNameIds = Arrays.copyOf(itemNameIds, itemCount * 2);
+                                        itemQuantities = Arrays.copyOf(itemQuantities, itemCount * 2);
+                                }
+                                itemNameIds[itemCount] = catalog.id(item.name());
+                                itemQuantities[itemCount++] = item.quantity();
+                        }
+
+                        itemOffsets[++size] = itemCount;
+                        return this;
+                }
+
+                public TransactionTable build() {
+                        byte[][] columns = new byte[CATEGORIES.length][];
+                        for (int c = 0; c < CATEGORIES.length; c++)
+                                columns[c] = Arrays.copyOf(codes[c], size);
+
+                        return new TransactionTable(
+                                        Arrays.copyOf(transactionIds, size),
+                                        Arrays.copyOf(epochDays, size),
+                                        Arrays.copyOf(secondsOfDay, size),
+                                        columns,
+                                        Arrays.copyOf(itemOffsets, size + 1),
+                                        Arrays.copyOf(itemNameIds, itemCount),
+                                        Arrays.copyOf(itemQuantities, itemCount),
+                                        catalog.names());
+                }
+
+                private void grow() {
+                        int capacity = size * 2;
+                        transactionIds = Arrays.copyOf(transactionIds, capacity);
+                        epochDays = Arrays.copyOf(epochDays, capacity);
+                        secondsOfDay = Arrays.copyOf(secondsOfDay, capacity);
+                        for (int c = 0; c < CATEGORIES.length; c++)
+                                codes[c] = Arrays.copyOf(codes[c], capacity);
+                        itemOffsets = Arrays.copyOf(itemOffsets, capacity + 1);
+                }
+        }
+}
@@ -0,0 +1,26 @@
+public enum TransactionType implements Categorical {
+        IN_STORE("In-Store"),
+        ONLINE("Online");
+
+        private static final TransactionType[] VALUES = values();
+
+        private final String label;
+
+        TransactionType(String label) {
+                this.label = label;
+        }
+
+        public static TransactionType parse(String text) {
+                return Categorical.parse(VALUES, text);
+        }
+
+        @Override
+        public String label() {
+                return label;
+        }
+
+        @Override
+        public String toString() {
+                return label;
+        }
+}
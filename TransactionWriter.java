@@ -0,0 +1,126 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes transactions in the CSV and JSON-lines formats read by
+ * {@link TransactionReader}. Records are written as the stream is consumed.
+ */
+public final class TransactionWriter {
+
+        static final String CSV_HEADER = "transactionId,date,time,items,paymentMethod,transactionType,"
+                        + "transactionStatus,customerType,storeSection";
+
+        private TransactionWriter() {
+        }
+
+        public static void csv(Stream<Transaction> transactions, Path path) throws IOException {
+                try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                        out.write(CSV_HEADER);
+                        out.write('\n');
+                        for (Iterator<Transaction> it = transactions.iterator(); it.hasNext();)
+                                writeCsv(it.next(), out);
+                }
+        }
+
+        public static void jsonLines(Stream<Transaction> transactions, Path path) throws IOException {
+                try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                        for (Iterator<Transaction> it = transactions.iterator(); it.hasNext();)
+                                writeJson(it.next(), out);
+                }
+        }
+
+        static void writeCsv(Transaction tx, Writer out) throws IOException {
+                writeCsvField(tx.transactionId(), out);
+                out.write(',');
+                out.write(tx.date().toString());
+                out.write(',');
+                out.write(tx.time().toString());
+                out.write(',');
+
+                StringBuilder items = new StringBuilder();
+                for (Item item : tx.items()) {
+                        if (item.name().indexOf(';') >= 0)
+                                throw new IllegalArgumentException("Item name cannot contain ';' in CSV: " + item.name());
+                        if (items.length() > 0)
+                                items.append(';');
+                        items.append(item.name()).append(':').append(item.quantity());
+                }
+                writeCsvField(items.toString(), out);
+
+                for (Categorical value : new Categorical[] { tx.paymentMethod(), tx.transactionType(),
+                                tx.transactionStatus(), tx.customerType(), tx.storeSection() }) {
+                        out.write(',');
+                        writeCsvField(value.label(), out);
+                }
+                out.write('\n');
+        }
+
+        static void writeJson(Transaction tx, Writer out) throws IOException {
+                out.write("{\"transactionId\":");
+                writeJsonString(tx.transactionId(), out);
+                out.write(",\"date\":\"");
+                out.write(tx.date().toString());
+                out.write("\",\"time\":\"");
+                out.write(tx.time().toString());
+                out.write("\",\"items\":[");
+                for (int i = 0; i < tx.items().size(); i++) {
+                        Item item = tx.items().get(i);
+                        out.write(i == 0 ? "{\"name\":" : ",{\"name\":");
+                        writeJsonString(item.name(), out);
+                        out.write(",\"quantity\":");
+                        out.write(Integer.toString(item.quantity()));
+                        out.write('}');
+                }
+                out.write("],\"paymentMethod\":");
+                writeJsonString(tx.paymentMethod().label(), out);
+                out.write(",\"transactionType\":");
+                writeJsonString(tx.transactionType().label(), out);
+                out.write(",\"transactionStatus\":");
+                writeJsonString(tx.transactionStatus().label(), out);
+                out.write(",\"customerType\":");
+                writeJsonString(tx.customerType().label(), out);
+                out.write(",\"storeSection\":");
+                writeJsonString(tx.storeSection().label(), out);
+                out.write("}\n");
+        }
+
+        // Quotes the field only when it contains a separator or quote
+        private static void writeCsvField(String value, Writer out) throws IOException {
+                if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0)
+                        throw new IllegalArgumentException("CSV field cannot contain a line break: " + value);
+                if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+                        out.write(value);
+                        return;
+                }
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+        }
+
+        private static void writeJsonString(String value, Writer out) throws IOException {
+                out.write('"');
+                for (int i = 0; i < value.length(); i++) {
+                        char c = value.charAt(i);
+                        switch (c) {
+                                case '"' -> out.write("\\\"");
+                                case '\\' -> out.write("\\\\");
+                                case '\n' -> out.write("\\n");
+                                case '\r' -> out.write("\\r");
+                                case '\t' -> out.write("\\t");
+                                default -> {
+                                        if (c < 0x20)
+                                                out.write(String.format("\\u%04x", (int) c));
+                                        else
+                                                out.write(c);
+                                }
+                        }
+                }
+                out.write('"');
+        }
+}